@@ -0,0 +1,69 @@
+import percolation.bench.Grid;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: default-package factory exposing the percolation classes to
+ * the benchmarks in percolation.bench
+ */
+public final class Grids {
+
+    private Grids() {
+    }
+
+    /**
+     * Create an N-by-N grid
+     *
+     * @param variant Percolation, BigPercolation or ConcurrentPercolation
+     * @param N       dimension of the grid
+     * @return the grid
+     */
+    public static Grid grid(String variant, int N) {
+        switch (variant) {
+            case "Percolation":
+                return new Grid() {
+                    private final Percolation p = new Percolation(N);
+
+                    public void open(int i, int j) { p.open(i, j); }
+                    public boolean isOpen(int i, int j) { return p.isOpen(i, j); }
+                    public boolean isFull(int i, int j) { return p.isFull(i, j); }
+                    public boolean percolates() { return p.percolates(); }
+                    public void reset() { p.reset(); }
+                };
+            case "BigPercolation":
+                return new Grid() {
+                    private BigPercolation p = new BigPercolation(N);
+
+                    public void open(int i, int j) { p.open(i, j); }
+                    public boolean isOpen(int i, int j) { return p.isOpen(i, j); }
+                    public boolean isFull(int i, int j) { return p.isFull(i, j); }
+                    public boolean percolates() { return p.percolates(); }
+                    public void reset() { p = new BigPercolation(N); }
+                };
+            case "ConcurrentPercolation":
+                return new Grid() {
+                    private ConcurrentPercolation p = new ConcurrentPercolation(N);
+
+                    public void open(int i, int j) { p.open(i, j); }
+                    public boolean isOpen(int i, int j) { return p.isOpen(i, j); }
+                    public boolean isFull(int i, int j) { return p.isFull(i, j); }
+                    public boolean percolates() { return p.percolates(); }
+                    public void reset() { p = new ConcurrentPercolation(N); }
+                };
+            default:
+                throw new IllegalArgumentException("unknown variant " + variant);
+        }
+    }
+
+    /**
+     * Run a complete seeded PercolationStats experiment
+     *
+     * @return the sample mean
+     */
+    public static double stats(int N, int T, long seed, int threads, boolean sweep) {
+        PercolationStats stats = sweep
+                ? PercolationStats.sweep(N, T, seed, threads, false)
+                : new PercolationStats(N, T, seed, threads);
+        return stats.mean();
+    }
+}
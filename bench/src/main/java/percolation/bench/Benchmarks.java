@@ -0,0 +1,31 @@
+package percolation.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: run the benchmarks and always keep a machine-readable result
+ * <p/>
+ * Accepts the usual JMH command line. Results are written as JSON to
+ * the file given with -rff, jmh-result.json by default.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(cmd)
+                .resultFormat(ResultFormatType.JSON)
+                .result(cmd.getResult().orElse("jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
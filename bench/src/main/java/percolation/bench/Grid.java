@@ -0,0 +1,27 @@
+package percolation.bench;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: common view of the percolation implementations under benchmark
+ * <p/>
+ * The implementations live in the default package, which named packages
+ * cannot import, so they are reached through this interface and the
+ * default-package Grids factory. Each JMH fork only ever loads one
+ * implementation, so calls through the interface stay monomorphic.
+ */
+public interface Grid {
+
+    void open(int i, int j);
+
+    boolean isOpen(int i, int j);
+
+    boolean isFull(int i, int j);
+
+    boolean percolates();
+
+    /**
+     * Block all sites again, reusing storage where the implementation can
+     */
+    void reset();
+}
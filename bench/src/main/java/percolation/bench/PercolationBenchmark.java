@@ -0,0 +1,132 @@
+package percolation.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: throughput of the hot Percolation operations
+ * <p/>
+ * Every benchmark works on a fixed random permutation of the sites.
+ * open() is measured by opening the next {@link #OPS} sites of the
+ * permutation, so the average covers a complete fill of the grid; the
+ * grid is reset outside of the measurement once the permutation is used
+ * up. isFull() and percolates() are measured on a grid opened up to the
+ * percolation threshold.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PercolationBenchmark {
+
+    private static final int OPS = 4096;
+
+    @Param({"64", "256", "1024"})
+    private int N;
+
+    @Param({"Percolation", "BigPercolation", "ConcurrentPercolation"})
+    private String variant;
+
+    private Grid threshold;
+    private int[] rows, cols;
+
+    @Setup
+    public void setUp() {
+        int n = N * N;
+        rows = new int[n];
+        cols = new int[n];
+        int[] order = new int[n];
+        for (int p = 0; p < n; p++) order[p] = p;
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int p = n - 1; p > 0; p--) {
+            int r = random.nextInt(p + 1);
+            int t = order[p];
+            order[p] = order[r];
+            order[r] = t;
+        }
+        for (int p = 0; p < n; p++) {
+            rows[p] = order[p] / N + 1;
+            cols[p] = order[p] % N + 1;
+        }
+
+        threshold = Subjects.grid(variant, N);
+        for (int p = 0; !threshold.percolates(); p++) {
+            threshold.open(rows[p], cols[p]);
+        }
+    }
+
+    /**
+     * The grid being filled by open(), apart from the shared state so
+     * that its per-invocation refill check runs around open() only
+     */
+    @State(Scope.Thread)
+    public static class Filling {
+        private Grid grid;
+        private int[] rows, cols;
+        private int cursor;
+
+        @Setup
+        public void setUp(PercolationBenchmark benchmark) {
+            grid = Subjects.grid(benchmark.variant, benchmark.N);
+            rows = benchmark.rows;
+            cols = benchmark.cols;
+            cursor = rows.length;
+        }
+
+        @Setup(Level.Invocation)
+        public void nextBatch() {
+            if (cursor + OPS > rows.length) {
+                grid.reset();
+                cursor = 0;
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void open(Filling filling, Blackhole bh) {
+        Grid grid = filling.grid;
+        int[] rows = filling.rows, cols = filling.cols;
+        int start = filling.cursor, end = Math.min(start + OPS, rows.length);
+        for (int p = start; p < end; p++) {
+            grid.open(rows[p], cols[p]);
+        }
+        filling.cursor = end;
+        bh.consume(grid.percolates());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPS)
+    public void isFull(Blackhole bh) {
+        Grid grid = threshold;
+        int ops = Math.min(OPS, rows.length);
+        for (int p = 0; p < ops; p++) {
+            bh.consume(grid.isFull(rows[p], cols[p]));
+        }
+    }
+
+    @Benchmark
+    public boolean percolates() {
+        return threshold.percolates();
+    }
+}
@@ -0,0 +1,47 @@
+package percolation.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: wall-clock time of complete PercolationStats experiments
+ * in their seeded fork-join modes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PercolationStatsBenchmark {
+
+    @Param({"64", "256"})
+    private int N;
+
+    @Param({"100", "1000"})
+    private int T;
+
+    @Param({"trials", "sweep"})
+    private String mode;
+
+    @Param({"1", "0"})      // 0 = one thread per available processor
+    private int threads;
+
+    @Benchmark
+    public double stats() {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Subjects.stats(N, T, 42, parallelism, mode.equals("sweep"));
+    }
+}
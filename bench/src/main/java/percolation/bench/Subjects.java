@@ -0,0 +1,54 @@
+package percolation.bench;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: reflective bridge to the default-package Grids factory
+ */
+final class Subjects {
+
+    private static final Method GRID, STATS;
+
+    static {
+        try {
+            Class<?> grids = Class.forName("Grids");
+            GRID = grids.getMethod("grid", String.class, int.class);
+            STATS = grids.getMethod("stats", int.class, int.class, long.class,
+                    int.class, boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Subjects() {
+    }
+
+    /**
+     * Create an N-by-N grid of the named implementation
+     */
+    static Grid grid(String variant, int N) {
+        return (Grid) invoke(GRID, variant, N);
+    }
+
+    /**
+     * Run a complete PercolationStats experiment and return its mean
+     */
+    static double stats(int N, int T, long seed, int threads, boolean sweep) {
+        return (Double) invoke(STATS, N, T, seed, threads, sweep);
+    }
+
+    private static Object invoke(Method method, Object... args) {
+        try {
+            return method.invoke(null, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
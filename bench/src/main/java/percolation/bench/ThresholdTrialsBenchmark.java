@@ -0,0 +1,68 @@
+package percolation.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: wall-clock time of complete threshold experiments per variant
+ * <p/>
+ * Runs the PercolationStats rejection-sampling experiment sequentially
+ * through each union-find variant, so the variants can be compared on
+ * whole runs and not only on single operations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ThresholdTrialsBenchmark {
+
+    @Param({"64", "256"})
+    private int N;
+
+    @Param({"100", "1000"})
+    private int T;
+
+    @Param({"Percolation", "BigPercolation", "ConcurrentPercolation"})
+    private String variant;
+
+    private Grid grid;
+
+    @Setup
+    public void setUp() {
+        grid = Subjects.grid(variant, N);
+    }
+
+    @Benchmark
+    public long trials() {
+        SplittableRandom random = new SplittableRandom(42);
+        long total = 0;
+        for (int t = 0; t < T; t++) {
+            grid.reset();
+            while (!grid.percolates()) {
+                int i = random.nextInt(1, N + 1);
+                int j = random.nextInt(1, N + 1);
+                if (!grid.isOpen(i, j)) {
+                    grid.open(i, j);
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+}
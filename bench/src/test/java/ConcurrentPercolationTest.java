@@ -0,0 +1,192 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: check the guarantees ConcurrentPercolation gives readers while
+ * other threads open sites
+ * <p/>
+ * The openers open every site in phases. While they run, observers check
+ * that answers are monotone (a full site stays full, a percolating system
+ * keeps percolating) and sound (a site only reads as full, and the system
+ * only percolates, through sites whose open() has begun). Between phases,
+ * when no open() is running, every answer must be exactly Percolation's
+ * for the same open sites.
+ */
+class ConcurrentPercolationTest {
+
+    private static final int N = 24, ROUNDS = 200, PHASES = 4;
+    private static final int OPENERS = 2, OBSERVERS = 2;
+
+    @Test
+    void answersAreMonotoneSoundAndExactWhenQuiescent() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < ROUNDS; round++) {
+            String failure = round(random.split());
+            assertNull(failure, "round " + round);
+        }
+    }
+
+    /**
+     * Open every site from OPENERS threads while OBSERVERS threads keep
+     * reading isFull() and percolates()
+     *
+     * @return a description of the first violation, null if none
+     */
+    private static String round(SplittableRandom random) throws InterruptedException {
+        ConcurrentPercolation percolation = new ConcurrentPercolation(N);
+        int[] order = shuffled(N * N, random);
+        AtomicIntegerArray started = new AtomicIntegerArray(N * N);
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CyclicBarrier phase = new CyclicBarrier(OPENERS,
+                () -> quiescent(percolation, started, failure));
+        Thread[] threads = new Thread[OPENERS + OBSERVERS];
+
+        for (int t = 0; t < OPENERS; t++) {
+            int lo = order.length * t / OPENERS, hi = order.length * (t + 1) / OPENERS;
+            threads[t] = new Thread(() -> {
+                await(start);
+                for (int f = 0; f < PHASES; f++) {
+                    int from = lo + (hi - lo) * f / PHASES, to = lo + (hi - lo) * (f + 1) / PHASES;
+                    for (int k = from; k < to; k++) {
+                        started.set(order[k], 1);
+                        percolation.open(order[k] / N + 1, order[k] % N + 1);
+                    }
+                    try {
+                        phase.await();
+                    } catch (InterruptedException | BrokenBarrierException e) {
+                        failure.compareAndSet(null, e.toString());
+                        return;
+                    }
+                }
+            });
+        }
+        for (int t = OPENERS; t < threads.length; t++) {
+            int[] sites = shuffled(N * N, random.split());
+            threads[t] = new Thread(() -> {
+                await(start);
+                boolean[] full = new boolean[N * N];
+                boolean percolated = false;
+                boolean last;
+                do {
+                    last = done.get();
+                    for (int p : sites) {
+                        int i = p / N + 1, j = p % N + 1;
+                        if (percolation.isFull(i, j)) {
+                            if (!full[p] && !reachable(started, p, false))
+                                failure.compareAndSet(null, site(p) + " is full before it"
+                                        + " is connected to the top");
+                            full[p] = true;
+                        } else if (full[p]) {
+                            failure.compareAndSet(null, site(p) + " was full and is not any more");
+                        }
+                    }
+                    if (percolation.percolates()) {
+                        if (!percolated && !reachable(started, -1, true))
+                            failure.compareAndSet(null, "percolates before a path is opened");
+                        percolated = true;
+                    } else if (percolated) {
+                        failure.compareAndSet(null, "percolated and does not any more");
+                    }
+                } while (!last && failure.get() == null);
+            });
+        }
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].start();
+        }
+        start.countDown();
+        for (int t = 0; t < OPENERS; t++) {
+            threads[t].join();
+        }
+        done.set(true);
+        for (Thread thread : threads) thread.join();
+        return failure.get();
+    }
+
+    // no open() is running: compare every answer with Percolation's
+    private static void quiescent(ConcurrentPercolation percolation, AtomicIntegerArray started,
+                                  AtomicReference<String> failure) {
+        Percolation expected = new Percolation(N);
+        for (int p = 0; p < N * N; p++) {
+            if (started.get(p) != 0) expected.open(p / N + 1, p % N + 1);
+        }
+        for (int p = 0; p < N * N; p++) {
+            int i = p / N + 1, j = p % N + 1;
+            if (percolation.isFull(i, j) != expected.isFull(i, j))
+                failure.compareAndSet(null, site(p) + " is wrong between phases");
+        }
+        if (percolation.percolates() != expected.percolates())
+            failure.compareAndSet(null, "percolates() is wrong between phases");
+    }
+
+    /**
+     * Search the sites whose open() has begun, from the top row: is site
+     * p reached, or, with toBottom, any site of the bottom row? Read after
+     * the answer being checked, so it includes every site opened before.
+     */
+    private static boolean reachable(AtomicIntegerArray started, int p, boolean toBottom) {
+        boolean[] seen = new boolean[N * N];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int q = 0; q < N; q++) {
+            if (started.get(q) != 0) {
+                seen[q] = true;
+                queue.add(q);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int q = queue.poll();
+            if (q == p || (toBottom && q >= N * (N - 1)))
+                return true;
+
+            int i = q / N, j = q % N;
+            int[] neighbors = {i > 0 ? q - N : -1, i < N - 1 ? q + N : -1,
+                    j > 0 ? q - 1 : -1, j < N - 1 ? q + 1 : -1};
+            for (int r : neighbors) {
+                if (r >= 0 && !seen[r] && started.get(r) != 0) {
+                    seen[r] = true;
+                    queue.add(r);
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String site(int p) {
+        return "(" + (p / N + 1) + ", " + (p % N + 1) + ")";
+    }
+
+    private static int[] shuffled(int n, SplittableRandom random) {
+        int[] a = new int[n];
+        for (int k = 0; k < n; k++) a[k] = k;
+        for (int k = n - 1; k > 0; k--) {
+            int r = random.nextInt(k + 1);
+            int t = a[k];
+            a[k] = a[r];
+            a[r] = t;
+        }
+        return a;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+import edu.princeton.cs.algs4.MinPQ;
+
+import java.util.HashMap;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: bidirectional heuristic search for the slider puzzle
+ * <p/>
+ * One search runs forward from the initial board and one backward from
+ * the goal, each guided by a front-to-end estimate: h, the moves from a
+ * board to the end its search is heading for, and r, the moves from the
+ * board back to the end its search started from. A node of either search
+ * is ordered by b = 2g + h - r (dynamically improved bounds, DIBBS). Both
+ * estimates are consistent, so b never decreases along a path, and for
+ * any solution through a node u of the forward search next to a node v
+ * of the backward search, (b(u) + b(v)) / 2 is at most its length. The
+ * search with the lower b expands next, and whenever it generates a board
+ * the other search has seen, the two paths joined there are a solution.
+ * The shortest one found is optimal once it is at most half the sum of
+ * the lowest b of the two searches. Every move changes the Manhattan
+ * distance by one, so all solutions have the parity of the initial
+ * board's Manhattan distance, and the bound is rounded up to it.
+ */
+final class Bidirectional {
+
+    private final int N;
+    private final Solver.Heuristic heuristic;
+    private final int[] toInitial;      // block t is named toInitial[t] by the backward estimate
+    private final int parity;           // of the length of every solution
+    private final Direction forward, backward;
+    private int best = Integer.MAX_VALUE;       // the shortest solution so far
+    private Node meetForward, meetBackward;
+
+    private Bidirectional(Board initial, Solver.Heuristic heuristic) {
+        N = initial.dimension();
+        this.heuristic = heuristic;
+        parity = initial.manhattan() & 1;
+        int n = N * N;
+
+        // renamed after its initial cell, a block is as far from the
+        // initial board as from the goal, for Manhattan distance and
+        // linear conflicts alike
+        toInitial = new int[n];
+        for (int k = 0; k < n; ++k) {
+            int t = initial.tile(k);
+            toInitial[t] = t == 0 ? 0 : k + 1;
+        }
+
+        int[][] blocks = new int[N][N];
+        for (int k = 0; k < n; ++k) blocks[k / N][k % N] = (k + 1) % n;
+        Board goal = new Board(blocks);
+
+        forward = new Direction();
+        backward = new Direction();
+        forward.add(node(forward, initial, 0, null));
+        backward.add(node(backward, goal, 0, null));
+    }
+
+    /**
+     * Find a shortest solution of a solvable board
+     *
+     * @param initial   the board
+     * @param heuristic MANHATTAN or LINEAR_CONFLICT, both consistent
+     * @return the index of the blank after each move
+     */
+    static int[] solve(Board initial, Solver.Heuristic heuristic) {
+        if (heuristic != Solver.Heuristic.MANHATTAN && heuristic != Solver.Heuristic.LINEAR_CONFLICT)
+            throw new IllegalArgumentException("needs a consistent heuristic");
+
+        if (initial.isGoal())
+            return new int[0];
+
+        Bidirectional search = new Bidirectional(initial, heuristic);
+        search.run();
+        return search.path();
+    }
+
+    private Node node(Direction direction, Board board, int g, Node previous) {
+        int toGoal = toGoal(board), toStart = toInitial(board);
+        return direction == forward
+                ? new Node(board, g, toGoal, toStart, previous)
+                : new Node(board, g, toStart, toGoal, previous);
+    }
+
+    // estimated moves from a board to the goal
+    private int toGoal(Board board) {
+        if (heuristic == Solver.Heuristic.MANHATTAN)
+            return board.manhattan();
+        return board.manhattan() + Board.linearConflict(board.tiles(), N);
+    }
+
+    // estimated moves from a board to the initial board
+    private int toInitial(Board board) {
+        // block t is named toInitial[t], whose initial cell is toInitial[t] - 1
+        int[] tiles = board.tiles();
+        int manhattan = 0;
+        for (int k = 0; k < tiles.length; ++k) {
+            int t = toInitial[tiles[k]];
+            tiles[k] = t;
+            if (t != 0)
+                manhattan += Math.abs((t - 1) / N - k / N) + Math.abs((t - 1) % N - k % N);
+        }
+        if (heuristic == Solver.Heuristic.MANHATTAN)
+            return manhattan;
+        return manhattan + Board.linearConflict(tiles, N);
+    }
+
+    private void run() {
+        for (int n = 1; ; n++) {
+            if ((n & Solver.INTERRUPT_CHECK) == 0)
+                Solver.checkInterrupted();
+
+            int bf = forward.min(), bb = backward.min();
+            if (bf == Integer.MAX_VALUE || bb == Integer.MAX_VALUE)
+                return;     // not reached for a solvable board
+
+            // no solution is shorter than the bound, rounded up to the parity
+            int bound = (bf + bb + 1) / 2;
+            if (((bound ^ parity) & 1) != 0)
+                bound++;
+            if (best <= bound)
+                return;
+
+            if (bf <= bb)
+                expand(forward, backward);
+            else
+                expand(backward, forward);
+        }
+    }
+
+    private void expand(Direction near, Direction far) {
+        Node node = near.open.delMin();
+        node.open = false;
+        Board board = node.board;
+        int blank = board.blank();
+        int i = blank / N, j = blank % N;
+
+        for (int d = 0; d < 4; ++d) {
+            int k;
+            if (d == 0) {
+                if (i == 0) continue;
+                k = blank - N;
+            } else if (d == 1) {
+                if (i == N - 1) continue;
+                k = blank + N;
+            } else if (d == 2) {
+                if (j == 0) continue;
+                k = blank - 1;
+            } else {
+                if (j == N - 1) continue;
+                k = blank + 1;
+            }
+            // don't undo the move that led here
+            if (node.previous != null && k == node.previous.board.blank())
+                continue;
+
+            Board next = board.slide(k);
+            int g = node.g + 1;
+            Node seen = near.seen.get(next);
+            if (seen != null) {
+                if (seen.g <= g)
+                    continue;
+                seen.open = false;      // superseded; left in the queue
+            }
+
+            Node child = node(near, next, g, node);
+            near.add(child);
+
+            // a path through the other search
+            Node other = far.seen.get(next);
+            if (other != null && g + other.g < best) {
+                best = g + other.g;
+                meetForward = near == forward ? child : other;
+                meetBackward = near == forward ? other : child;
+            }
+        }
+    }
+
+    // blank index after each move, from the initial board to the goal
+    private int[] path() {
+        int[] path = new int[best];
+        int g = meetForward.g;
+        for (Node node = meetForward; node.previous != null; node = node.previous) {
+            path[--g] = node.board.blank();
+        }
+        g = meetForward.g;
+        for (Node node = meetBackward.previous; node != null; node = node.previous) {
+            path[g++] = node.board.blank();
+        }
+        return path;
+    }
+
+    /**
+     * Open and seen nodes of one direction of the search. The queue keeps
+     * superseded nodes, which are dropped as they come up.
+     */
+    private static class Direction {
+        private final MinPQ<Node> open = new MinPQ<>();
+        private final HashMap<Board, Node> seen = new HashMap<>();
+
+        void add(Node node) {
+            open.insert(node);
+            seen.put(node.board, node);
+        }
+
+        // lowest b of the open nodes, MAX_VALUE if none
+        int min() {
+            while (!open.isEmpty() && !open.min().open) open.delMin();
+            return open.isEmpty() ? Integer.MAX_VALUE : open.min().b;
+        }
+    }
+
+    private static class Node implements Comparable<Node> {
+        private final Board board;
+        private final int g, b;
+        private final Node previous;
+        private boolean open = true;
+
+        /**
+         * @param h estimated moves to the end this search heads for
+         * @param r estimated moves back to the end it started from
+         */
+        Node(Board board, int g, int h, int r, Node previous) {
+            this.board = board;
+            this.g = g;
+            this.b = 2 * g + h - r;
+            this.previous = previous;
+        }
+
+        @Override
+        public int compareTo(Node o) {
+            int cmp = Integer.compare(b, o.b);
+            if (cmp != 0)
+                return cmp;
+
+            // deeper first: it is closer to meeting the other search
+            return Integer.compare(o.g, g);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+import edu.princeton.cs.algs4.Stopwatch;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: percolation on grids with more than 2^31 sites
+ * <p/>
+ * Same API as Percolation, but sites are addressed with long indices and
+ * all state lives in chunked primitive arrays, so N is no longer bounded
+ * by the size of a single Java array:
+ * <ul>
+ * <li>open state is packed into a bitset, one bit per site;</li>
+ * <li>each site has one long word holding its union-find parent (stored
+ * as parent + 1, so a zeroed word is a root and the arrays need no
+ * initialization pass), its rank and its "connected to top" and
+ * "connected to bottom" root flags.</li>
+ * </ul>
+ * Finds use path halving. The grid costs a little over 8 bytes per site.
+ */
+public class BigPercolation {
+
+    private static final int CHUNK_BITS = 24;           // 128 MB per chunk
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int PARENT_BITS = 40;
+    private static final long PARENT_MASK = (1L << PARENT_BITS) - 1;
+    private static final int RANK_SHIFT = PARENT_BITS;
+    private static final long RANK_MASK = 0x3FL << RANK_SHIFT;
+    private static final long TOP = 1L << 46, BOTTOM = 1L << 47;
+    private static final long SPANNING = TOP | BOTTOM;
+
+    /**
+     * Largest supported grid dimension, so that every parent + 1 fits
+     */
+    public static final int MAX_N = (int) Math.sqrt((double) PARENT_MASK);
+
+    private final int N;
+    private final long[][] nodes;   // parent + 1 (0 for a root), rank, flags
+    private final long[][] open;    // one bit per site
+    private boolean percolates;
+
+    /**
+     * Create an N-by-N grid with all sites blocked
+     *
+     * @param N dimension of the grid
+     */
+    public BigPercolation(int N) {
+        if (N <= 0 || N > MAX_N) throw new IllegalArgumentException();
+
+        this.N = N;
+        long sites = (long) N * N;
+        nodes = allocate(sites);
+        open = allocate((sites + 63) >>> 6);
+    }
+
+    /**
+     * Open random sites of an N-by-N grid until it percolates
+     *
+     * @param args the program arguments
+     */
+    public static void main(String[] args) {
+        int N = Integer.parseInt(args[0]);
+
+        Stopwatch stopwatch = new Stopwatch();
+        BigPercolation percolation = new BigPercolation(N);
+        long count = 0;
+        while (!percolation.percolates()) {
+            int i = StdRandom.uniform(1, N + 1);
+            int j = StdRandom.uniform(1, N + 1);
+            if (!percolation.isOpen(i, j)) {
+                percolation.open(i, j);
+                count++;
+            }
+        }
+
+        StdOut.printf("threshold = %.10f%n", count / ((double) N * N));
+        StdOut.printf("elapsed time: %.2f seconds.%n", stopwatch.elapsedTime());
+    }
+
+    private static long[][] allocate(long length) {
+        int chunks = (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+        long[][] a = new long[chunks][];
+        for (int c = 0; c < chunks; c++) {
+            long remaining = length - ((long) c << CHUNK_BITS);
+            a[c] = new long[(int) Math.min(CHUNK_SIZE, remaining)];
+        }
+        return a;
+    }
+
+    /**
+     * Open site (row <tt>i</tt>, column <tt>j</tt> if it is not open already
+     *
+     * @param i the row
+     * @param j the column
+     */
+    public void open(int i, int j) {
+        if (isOpen(i, j))
+            return;
+
+        long p = xyTo1D(i, j);
+        long[] bits = open[(int) (p >>> (CHUNK_BITS + 6))];
+        bits[(int) ((p >>> 6) & CHUNK_MASK)] |= 1L << p;
+
+        // a newly opened site is its own root
+        long flags = 0;
+        if (i == 1) flags |= TOP;
+        if (i == N) flags |= BOTTOM;
+        set(p, get(p) | flags);
+
+        // connect to above
+        if (i > 1) connect(p, p - N);
+        // connect to left
+        if (j > 1) connect(p, p - 1);
+        // connect to right
+        if (j < N) connect(p, p + 1);
+        // connect to bottom
+        if (i < N) connect(p, p + N);
+
+        if ((get(find(p)) & SPANNING) == SPANNING)
+            percolates = true;
+    }
+
+    /**
+     * Union site p with site q if q is open
+     *
+     * @param p the open site
+     * @param q the adjacent site
+     */
+    private void connect(long p, long q) {
+        if (!isOpen(q))
+            return;
+
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ)
+            return;
+
+        long wp = get(rootP), wq = get(rootQ);
+        long rankP = wp & RANK_MASK, rankQ = wq & RANK_MASK;
+
+        // make the root of the shorter tree point to the root of the taller
+        // tree, and carry its top / bottom flags over to the new root
+        if (rankP < rankQ) {
+            set(rootP, wp | (rootQ + 1));
+            set(rootQ, wq | (wp & SPANNING));
+        } else {
+            set(rootQ, wq | (rootP + 1));
+            wp |= wq & SPANNING;
+            if (rankP == rankQ) wp += 1L << RANK_SHIFT;
+            set(rootP, wp);
+        }
+    }
+
+    /**
+     * Find the root of site p, halving the path along the way
+     *
+     * @param p the site
+     * @return the root
+     */
+    private long find(long p) {
+        long q = parentOf(p);
+        while (q != p) {
+            long g = parentOf(q);
+            set(p, (get(p) & ~PARENT_MASK) | (g + 1));
+            p = g;
+            q = parentOf(p);
+        }
+        return p;
+    }
+
+    private long parentOf(long p) {
+        long parent = get(p) & PARENT_MASK;
+        return parent == 0 ? p : parent - 1;
+    }
+
+    private long get(long p) {
+        return nodes[(int) (p >>> CHUNK_BITS)][(int) (p & CHUNK_MASK)];
+    }
+
+    private void set(long p, long word) {
+        nodes[(int) (p >>> CHUNK_BITS)][(int) (p & CHUNK_MASK)] = word;
+    }
+
+    private boolean isOpen(long p) {
+        long[] bits = open[(int) (p >>> (CHUNK_BITS + 6))];
+        return (bits[(int) ((p >>> 6) & CHUNK_MASK)] & (1L << p)) != 0;
+    }
+
+    /**
+     * Validate index in range
+     *
+     * @param i the index
+     * @throws IndexOutOfBoundsException
+     */
+    private void validate(int i) {
+        if (1 > i || N < i)
+            throw new IndexOutOfBoundsException("index i out of bounds");
+    }
+
+    /**
+     * Is site (row <tt>i</tt>, column <tt>j</tt> open?
+     *
+     * @param i the row
+     * @param j the column
+     * @return true if site is open, otherwise false
+     */
+    public boolean isOpen(int i, int j) {
+        return isOpen(xyTo1D(i, j));
+    }
+
+    /**
+     * Is site (row <tt>i</tt>, column <tt>j</tt>) full?
+     *
+     * @param i the row
+     * @param j the column
+     * @return true if site is full, otherwise false
+     */
+    public boolean isFull(int i, int j) {
+        long p = xyTo1D(i, j);
+        if (!isOpen(p))
+            return false;
+
+        return (get(find(p)) & TOP) != 0;
+    }
+
+    /**
+     * Does the system percolate?
+     *
+     * @return true if percolates, otherwise false
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * Uniquely map 2D grid coordinates to 1D UF coordinates
+     *
+     * @param i the row
+     * @param j the column
+     * @return the 1D coordinate
+     */
+    private long xyTo1D(int i, int j) {
+        validate(i);
+        validate(j);
+        return (long) (i - 1) * N + (j - 1);
+    }
+}
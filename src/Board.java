@@ -2,6 +2,10 @@ import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.Queue;
 import edu.princeton.cs.algs4.StdOut;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * Thomas A. Rieck
  * 02/20/2016
@@ -11,10 +15,35 @@ import edu.princeton.cs.algs4.StdOut;
  * <p/>
  * Implementation should support all Board methods in time proportional to N^2
  * (or better) in the worst case.
+ * <p/>
+ * Tiles are stored row-major, packed as 4-bit nibbles of a long for
+ * boards up to 4-by-4 and as one byte per tile for larger boards, and
+ * the position of the blank is cached. A neighbor is made by moving a
+ * single tile, and equality and hashing work on the packed form.
+ * <p/>
+ * The Hamming and Manhattan distances are computed once for a board read
+ * in and then carried over to each neighbor, adjusted for the moved tile
+ * from a per-N table of tile distances, so they and isGoal() are O(1).
+ * A Zobrist hash is carried over the same way.
  */
 public class Board {
+    private static final int PACKED_N = 4;  // largest N packed in a long
+    private static final int MAX_N = 16;    // largest N whose tiles fit a byte
+
+    // DISTANCES[N][t * N^2 + k] = Manhattan distance of tile t at index k
+    private static final AtomicReferenceArray<byte[]> DISTANCES =
+            new AtomicReferenceArray<>(MAX_N + 1);
+
+    // ZOBRIST[N][t * N^2 + k] = random key of tile t at index k, 0 for the blank
+    private static final AtomicReferenceArray<long[]> ZOBRIST =
+            new AtomicReferenceArray<>(MAX_N + 1);
+
     private final int N;
-    private final int[][] tiles;
+    private final long packed;      // tile k in bits 4k..4k+3, for N <= 4
+    private final byte[] cells;     // tile k in cells[k], for N > 4
+    private final int blank;        // index of the blank, row-major
+    private final int hamming, manhattan;
+    private final long zobrist;     // xor of the keys of all tiles
 
     /**
      * Construct a board from an N-by-N array of blocks
@@ -24,16 +53,107 @@ public class Board {
      */
     public Board(int[][] blocks) {
         N = blocks.length;
-        tiles = new int[N][N];
-        for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < N; ++j) {
-                tiles[i][j] = blocks[i][j];
+        if (N > MAX_N)
+            throw new IllegalArgumentException("boards are at most " + MAX_N + "-by-" + MAX_N);
+
+        long packed = 0;
+        byte[] cells = N > PACKED_N ? new byte[N * N] : null;
+        int blank = -1;
+        for (int i = 0, k = 0; i < N; ++i) {
+            for (int j = 0; j < N; ++j, ++k) {
+                int t = blocks[i][j];
+                if (t == 0) blank = k;
+                if (cells == null) packed |= (long) t << (k << 2);
+                else cells[k] = (byte) t;
             }
         }
+
+        this.packed = packed;
+        this.cells = cells;
+        this.blank = blank;
+        byte[] distances = distances(N);
+        long[] keys = zobrist(N);
+
+        int h = 0, m = 0;
+        long z = 0;
+        for (int k = 0; k < N * N; ++k) {
+            int t = tile(k);
+            if (misplaced(t, k)) h++;
+            m += distances[t * N * N + k];
+            z ^= keys[t * N * N + k];
+        }
+        hamming = h;
+        manhattan = m;
+        zobrist = z;
     }
 
-    private Board(Board other) {
-        this(other.tiles);
+    private Board(int N, long packed, byte[] cells, int blank,
+                  int hamming, int manhattan, long zobrist) {
+        this.N = N;
+        this.packed = packed;
+        this.cells = cells;
+        this.blank = blank;
+        this.hamming = hamming;
+        this.manhattan = manhattan;
+        this.zobrist = zobrist;
+    }
+
+    /**
+     * Table of the Manhattan distance of every tile at every index of an
+     * N-by-N board, 0 for the blank; built once per N
+     *
+     * @param N the dimension
+     * @return the table
+     */
+    static byte[] distances(int N) {
+        byte[] table = DISTANCES.get(N);
+        if (table != null)
+            return table;
+
+        // racing threads build equal tables; the first one set is kept
+        // and the volatile store publishes its contents with it
+        int n = N * N;
+        table = new byte[n * n];
+        for (int t = 1; t < n; ++t) {
+            for (int k = 0; k < n; ++k) {
+                table[t * n + k] = (byte) (Math.abs((t - 1) / N - k / N)
+                        + Math.abs((t - 1) % N - k % N));
+            }
+        }
+        return DISTANCES.compareAndSet(N, null, table) ? table : DISTANCES.get(N);
+    }
+
+    /**
+     * Zobrist keys of every tile at every index of an N-by-N board, 0 for
+     * the blank; drawn once per N from a fixed seed
+     *
+     * @param N the dimension
+     * @return the keys
+     */
+    private static long[] zobrist(int N) {
+        long[] keys = ZOBRIST.get(N);
+        if (keys != null)
+            return keys;
+
+        // racing threads draw equal keys from the seed; the first set is kept
+        int n = N * N;
+        keys = new long[n * n];
+        SplittableRandom random = new SplittableRandom(N);
+        for (int i = n; i < keys.length; ++i) {
+            keys[i] = random.nextLong();
+        }
+        return ZOBRIST.compareAndSet(N, null, keys) ? keys : ZOBRIST.get(N);
+    }
+
+    /**
+     * Is tile t out of place at index k?
+     *
+     * @param t the tile
+     * @param k the index
+     * @return true if t is a block not at its goal index
+     */
+    private static boolean misplaced(int t, int k) {
+        return t != 0 && t - 1 != k;
     }
 
     /**
@@ -61,15 +181,73 @@ public class Board {
         }
     }
 
-    private int goal(int i, int j) {
-        int g;
-        if (i == j && i == N - 1) {
-            g = 0;
-        } else {
-            g = i * N + (j + 1);
+    /**
+     * Tile at row-major index k
+     *
+     * @param k the index
+     * @return the tile, 0 for the blank
+     */
+    int tile(int k) {
+        if (cells == null)
+            return (int) (packed >>> (k << 2)) & 0xF;
+        return cells[k] & 0xFF;
+    }
+
+    /**
+     * Index of the blank, row-major
+     *
+     * @return the index
+     */
+    int blank() {
+        return blank;
+    }
+
+    /**
+     * Board after sliding the block at index k, next to the blank, into
+     * the blank
+     *
+     * @param k the index of the block
+     * @return the new board
+     */
+    Board slide(int k) {
+        return exchange(blank, k);
+    }
+
+    /**
+     * Board with the tiles at indices a and b exchanged
+     *
+     * @param a the first index
+     * @param b the second index
+     * @return the new board
+     */
+    private Board exchange(int a, int b) {
+        int ta = tile(a), tb = tile(b);
+        int blank = ta == 0 ? b : tb == 0 ? a : this.blank;
+
+        // only the two exchanged tiles change their distances and keys
+        int n = N * N;
+        byte[] distances = distances(N);
+        int m = manhattan - distances[ta * n + a] - distances[tb * n + b]
+                + distances[ta * n + b] + distances[tb * n + a];
+        long[] keys = zobrist(N);
+        long z = zobrist ^ keys[ta * n + a] ^ keys[tb * n + b]
+                ^ keys[ta * n + b] ^ keys[tb * n + a];
+        int h = hamming;
+        if (misplaced(ta, a)) h--;
+        if (misplaced(tb, b)) h--;
+        if (misplaced(ta, b)) h++;
+        if (misplaced(tb, a)) h++;
+
+        if (cells == null) {
+            long mask = (0xFL << (a << 2)) | (0xFL << (b << 2));
+            long moved = ((long) tb << (a << 2)) | ((long) ta << (b << 2));
+            return new Board(N, (packed & ~mask) | moved, null, blank, h, m, z);
         }
 
-        return g;
+        byte[] c = cells.clone();
+        c[a] = (byte) tb;
+        c[b] = (byte) ta;
+        return new Board(N, 0, c, blank, h, m, z);
     }
 
     /**
@@ -87,18 +265,7 @@ public class Board {
      * @return the hamming
      */
     public int hamming() {
-        int h = 0;
-        for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < N; ++j) {
-                if (tiles[i][j] == 0)
-                    continue;   // blank
-
-                if (goal(i, j) != tiles[i][j])
-                    h++;
-            }
-        }
-
-        return h;
+        return hamming;
     }
 
     /**
@@ -107,43 +274,127 @@ public class Board {
      * @return the sum
      */
     public int manhattan() {
-        int m = 0;
+        return manhattan;
+    }
 
-        for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < N; ++j) {
-                if (tiles[i][j] == 0)
-                    continue;   // blank
+    /**
+     * Is this board the goal board?
+     *
+     * @return true if the goal board otherwise false
+     */
+    public boolean isGoal() {
+        return hamming == 0;
+    }
 
-                m += manhattanDistance(i, j);
-            }
+    /**
+     * Tiles of this board, row-major
+     *
+     * @return a new array of the tiles
+     */
+    int[] tiles() {
+        int[] t = new int[N * N];
+        for (int k = 0; k < t.length; ++k) {
+            t[k] = tile(k);
         }
+        return t;
+    }
 
-        return m;
+    /**
+     * Linear conflict on top of Manhattan distance.
+     * <p/>
+     * Blocks that are in their goal row (or column) but in the wrong order
+     * have to pass each other, so all blocks of the line but a longest run
+     * already in order must leave it and come back: two more moves each.
+     * A move changes the Manhattan distance by one and the conflict term
+     * by zero or by two the other way, so the sum stays consistent.
+     *
+     * @param tiles the tiles, row-major
+     * @param N     the dimension
+     * @return the number of moves to add to the Manhattan distance
+     */
+    static int linearConflict(int[] tiles, int N) {
+        int extra = 0;
+        int[] scratch = new int[N];
+        for (int a = 0; a < N; ++a) {
+            extra += lineConflict(tiles, N, a, false, scratch);
+            extra += lineConflict(tiles, N, a, true, scratch);
+        }
+        return extra;
     }
 
     /**
-     * Sum of the vertical and horizontal distance
-     * from a block to goal position
+     * Linear conflict of a single row or column, so that a search moving
+     * one block at a time can update only the two lines the block left
+     * and entered
      *
-     * @param i the row
-     * @param j the column
-     * @return the sum
+     * @param tiles   the tiles, row-major
+     * @param N       the dimension
+     * @param a       the row or column
+     * @param column  whether a is a column
+     * @param scratch an array of length N
+     * @return the number of moves to add for this line
      */
-    private int manhattanDistance(int i, int j) {
-        int b = tiles[i][j] - 1;
-        int br = b / N;
-        int bc = b % N;
+    static int lineConflict(int[] tiles, int N, int a, boolean column, int[] scratch) {
+        // goal positions along the line of the blocks whose goal line it is
+        int n = 0;
+        for (int b = 0; b < N; ++b) {
+            int t = tiles[column ? b * N + a : a * N + b] - 1;
+            if (t < 0)
+                continue;
+            if (column ? t % N == a : t / N == a)
+                scratch[n++] = column ? t / N : t % N;
+        }
+        return 2 * (n - longestIncreasing(scratch, n));
+    }
 
-        return Math.abs(br - i) + Math.abs(bc - j);
+    // length of a longest increasing subsequence of a[0..n), in place
+    private static int longestIncreasing(int[] a, int n) {
+        // a[0..len) becomes the smallest tail of the runs of each length
+        int len = 0;
+        for (int i = 0; i < n; ++i) {
+            int x = a[i], lo = 0, hi = len;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < x) lo = mid + 1;
+                else hi = mid;
+            }
+            a[lo] = x;
+            if (lo == len) len++;
+        }
+        return len;
     }
 
     /**
-     * Is this board the goal board?
+     * Can this board reach the goal board?
+     * <p/>
+     * A move of the blank along a row leaves the number of inversions
+     * among the blocks unchanged, and a move along a column changes it by
+     * N - 1. For odd N the inversions therefore keep their parity, and for
+     * even N the parity of inversions plus the row of the blank is kept.
+     * The inversions are counted with a Fenwick tree in O(N^2 log N).
      *
-     * @return true if the goal board otherwise false
+     * @return true if solvable, otherwise false
      */
-    public boolean isGoal() {
-        return hamming() == 0;
+    boolean isSolvable() {
+        int n = N * N;
+        int[] tree = new int[n];    // counts of the blocks seen so far
+        long inversions = 0;
+        for (int k = 0, seen = 0; k < n; ++k) {
+            int t = tile(k);
+            if (t == 0)
+                continue;
+
+            // blocks seen so far that are larger than t
+            int smaller = 0;
+            for (int i = t; i > 0; i -= i & -i) smaller += tree[i];
+            inversions += seen - smaller;
+            for (int i = t; i < n; i += i & -i) tree[i]++;
+            seen++;
+        }
+
+        if (N % 2 == 1)
+            return inversions % 2 == 0;
+        return (inversions + blank / N) % 2 == 1;
     }
 
     /**
@@ -153,19 +404,15 @@ public class Board {
      * @return the twin board
      */
     public Board twin() {
-        Board other = new Board(this);
-
         int row = 0;
 
-        int b1 = tiles[row][0];
-        int b2 = tiles[row][1];
+        int b1 = tile(0);
+        int b2 = tile(1);
         if (b1 == 0 || b2 == 0) {
             row++;
         }
 
-        other.exchange(row, 0, row, 1);
-
-        return other;
+        return exchange(row * N, row * N + 1);
     }
 
     /**
@@ -182,15 +429,28 @@ public class Board {
 
         Board that = (Board) y;
 
-        if (that.N != this.N) return false;
-        for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < N; ++j) {
-                if (tiles[i][j] != that.tiles[i][j])
-                    return false;
-            }
-        }
+        return that.N == this.N && that.blank == this.blank
+                && that.packed == this.packed && Arrays.equals(that.cells, this.cells);
+    }
+
+    /**
+     * Hash code consistent with equals()
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobrist);
+    }
 
-        return true;
+    /**
+     * 64-bit Zobrist hash of this board: the xor of a random key per tile
+     * and index, maintained incrementally from board to neighbor
+     *
+     * @return the hash
+     */
+    long zobrist() {
+        return zobrist;
     }
 
     /**
@@ -201,47 +461,22 @@ public class Board {
      */
     public Iterable<Board> neighbors() {
         Queue<Board> boards = new Queue<>();
-        Board b;
-
-        outer:
-        for (int i = 0; i < N; ++i) {
-            for (int j = 0; j < N; ++j) {
-                if (tiles[i][j] == 0) {
-                    if (i > 0) {    // move from above
-                        b = new Board(this);
-                        b.exchange(i, j, i - 1, j);
-                        boards.enqueue(b);
-                    }
-
-                    if (i < N - 1) { // move from below
-                        b = new Board(this);
-                        b.exchange(i, j, i + 1, j);
-                        boards.enqueue(b);
-                    }
-
-                    if (j > 0) {    // move from left
-                        b = new Board(this);
-                        b.exchange(i, j, i, j - 1);
-                        boards.enqueue(b);
-                    }
-
-                    if (j < N - 1) {    // move from right
-                        b = new Board(this);
-                        b.exchange(i, j, i, j + 1);
-                        boards.enqueue(b);
-                    }
-                    break outer;
-                }
-            }
-        }
 
-        return boards;
-    }
+        int i = blank / N, j = blank % N;
+
+        if (i > 0)          // move from above
+            boards.enqueue(exchange(blank, blank - N));
+
+        if (i < N - 1)      // move from below
+            boards.enqueue(exchange(blank, blank + N));
 
-    private void exchange(int i1, int j1, int i2, int j2) {
-        int t = tiles[i1][j1];
-        tiles[i1][j1] = tiles[i2][j2];
-        tiles[i2][j2] = t;
+        if (j > 0)          // move from left
+            boards.enqueue(exchange(blank, blank - 1));
+
+        if (j < N - 1)      // move from right
+            boards.enqueue(exchange(blank, blank + 1));
+
+        return boards;
     }
 
     /**
@@ -253,9 +488,9 @@ public class Board {
     public String toString() {
         StringBuilder s = new StringBuilder();
         s.append(N).append("\n");
-        for (int i = 0; i < N; i++) {
-            for (int j = 0; j < N; j++) {
-                s.append(String.format("%2d ", tiles[i][j]));
+        for (int i = 0, k = 0; i < N; i++) {
+            for (int j = 0; j < N; j++, k++) {
+                s.append(String.format("%2d ", tile(k)));
             }
             s.append("\n");
         }
@@ -0,0 +1,301 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: percolation on an N-by-N grid that many threads can open at once
+ * <p/>
+ * Same API as Percolation, built on a concurrent union-find in the style
+ * of Anderson and Woll / Jayanti and Tarjan. Each site has one atomic
+ * long word holding its parent (stored as parent + 1, so a zero word is a
+ * root), its open bit and its "connected to top" and "connected to bottom"
+ * root flags. Find is wait-free and compacts paths with best-effort CAS
+ * (path splitting); union is lock-free and links the root of lower random
+ * priority under the other with a single CAS, which keeps trees shallow
+ * in expectation and cannot create cycles.
+ * <p/>
+ * Before a root is linked, its flags are OR'ed into the root it will be
+ * linked under, retrying if that root is itself linked concurrently, and
+ * percolates is set as soon as the flags of the two meet. The two trees
+ * are merging anyway, so a union takes effect once the flags are in, and
+ * the flags of a tree are always found at its root or above it. isFull()
+ * only answers false from a word that was a root when it was read, so a
+ * full site never reads as not full again.
+ * <p/>
+ * The answers are monotone, not linearizable: open() joins a site to its
+ * neighbors with up to four separate unions, so while it runs a reader
+ * may see one site it connects as full and another not yet. A site only
+ * reads as full, and the system only percolates, through sites whose
+ * open() has begun, and once every open() has returned, isFull() and
+ * percolates() answer as Percolation would for the same open sites.
+ */
+public class ConcurrentPercolation {
+
+    private static final long PARENT_MASK = 0xFFFFFFFFL;
+    private static final long OPEN = 1L << 32, TOP = 1L << 33, BOTTOM = 1L << 34;
+    private static final long SPANNING = TOP | BOTTOM;
+
+    private final int N;
+    private final AtomicLongArray sites;
+    private volatile boolean percolates;
+
+    /**
+     * Create an N-by-N grid with all sites blocked
+     *
+     * @param N dimension of the grid
+     */
+    public ConcurrentPercolation(int N) {
+        if (N <= 0 || (long) N * N >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException();
+
+        this.N = N;
+        sites = new AtomicLongArray(N * N);
+    }
+
+    /**
+     * Open every site of an N-by-N grid from <tt>threads</tt> threads,
+     * each taking a disjoint slice of a scrambled site order
+     *
+     * @param args the program arguments
+     */
+    public static void main(String[] args) throws InterruptedException {
+        final int N = Integer.parseInt(args[0]);
+        final int threads = Integer.parseInt(args[1]);
+        final int n = N * N;
+
+        // a stride coprime with n visits every site exactly once
+        int s = 1_000_003;
+        while (gcd(s, n) != 1) s += 2;
+        final long stride = s;
+
+        final ConcurrentPercolation percolation = new ConcurrentPercolation(N);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long lo = (long) n * t / threads, hi = (long) n * (t + 1) / threads;
+            workers[t] = new Thread(() -> {
+                for (long k = lo; k < hi; k++) {
+                    int p = (int) ((k * stride) % n);
+                    percolation.open(p / N + 1, p % N + 1);
+                }
+            });
+        }
+
+        Stopwatch stopwatch = new Stopwatch();
+        for (Thread worker : workers) worker.start();
+        for (Thread worker : workers) worker.join();
+
+        StdOut.printf("percolates: %b%n", percolation.percolates());
+        StdOut.printf("elapsed time: %.2f seconds.%n", stopwatch.elapsedTime());
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Open site (row <tt>i</tt>, column <tt>j</tt> if it is not open already
+     *
+     * @param i the row
+     * @param j the column
+     */
+    public void open(int i, int j) {
+        int p = xyTo1D(i, j);
+
+        long flags = OPEN;
+        if (i == 1) flags |= TOP;
+        if (i == N) flags |= BOTTOM;
+
+        // a blocked site is never linked, so it is still its own root
+        for (long w = sites.get(p); ; w = sites.get(p)) {
+            if ((w & OPEN) != 0)
+                return;     // opened by another thread
+            if (sites.compareAndSet(p, w, w | flags))
+                break;
+        }
+
+        if ((flags & SPANNING) == SPANNING)
+            percolates = true;
+
+        // connect to above
+        if (i > 1) connect(p, p - N);
+        // connect to left
+        if (j > 1) connect(p, p - 1);
+        // connect to right
+        if (j < N) connect(p, p + 1);
+        // connect to bottom
+        if (i < N) connect(p, p + N);
+    }
+
+    /**
+     * Union site p with site q if q is open. If two adjacent sites are
+     * opened concurrently, at least one of them sees the other open.
+     *
+     * @param p the open site
+     * @param q the adjacent site
+     */
+    private void connect(int p, int q) {
+        if ((sites.get(q) & OPEN) == 0)
+            return;
+
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ)
+                return;
+
+            // link the root of lower priority below the other
+            if (before(rootQ, rootP)) {
+                int t = rootP;
+                rootP = rootQ;
+                rootQ = t;
+            }
+
+            long w = sites.get(rootP);
+            if (parentOf(rootP, w) != rootP)
+                continue;   // no longer a root
+
+            // the flags go first, so they never leave the root of a tree
+            if (!merge(rootQ, w & SPANNING))
+                continue;   // rootQ is no longer a root
+
+            // fails if rootP was linked or took new flags meanwhile
+            if (sites.compareAndSet(rootP, w, (w & ~PARENT_MASK) | (rootQ + 1L)))
+                return;
+        }
+    }
+
+    /**
+     * OR flags into root r
+     *
+     * @param r     the root
+     * @param flags the TOP / BOTTOM flags
+     * @return false if r is no longer a root
+     */
+    private boolean merge(int r, long flags) {
+        while (true) {
+            long w = sites.get(r);
+            if (parentOf(r, w) != r)
+                return false;
+
+            if (((w | flags) & SPANNING) == SPANNING)
+                percolates = true;
+            if ((w & flags) == flags)
+                return true;
+
+            if (sites.compareAndSet(r, w, w | flags))
+                return true;
+        }
+    }
+
+    /**
+     * Find the root of site p, splitting the path along the way.
+     * A failed compaction CAS is simply ignored.
+     *
+     * @param p the site
+     * @return the root
+     */
+    private int find(int p) {
+        while (true) {
+            long w = sites.get(p);
+            int q = parentOf(p, w);
+            if (q == p)
+                return p;
+
+            int g = parentOf(q, sites.get(q));
+            if (g != q)
+                sites.compareAndSet(p, w, (w & ~PARENT_MASK) | (g + 1L));
+            p = q;
+        }
+    }
+
+    private static int parentOf(int p, long w) {
+        int parent = (int) (w & PARENT_MASK);
+        return parent == 0 ? p : parent - 1;
+    }
+
+    /**
+     * Fixed random priority order of the sites: ties are impossible
+     * since the mixing function is a bijection
+     */
+    private static boolean before(int p, int q) {
+        return priority(p) < priority(q);
+    }
+
+    private static int priority(int p) {
+        p ^= p >>> 16;
+        p *= 0x85EBCA6B;
+        p ^= p >>> 13;
+        p *= 0xC2B2AE35;
+        p ^= p >>> 16;
+        return p;
+    }
+
+    /**
+     * Validate index in range
+     *
+     * @param i the index
+     * @throws IndexOutOfBoundsException
+     */
+    private void validate(int i) {
+        if (1 > i || N < i)
+            throw new IndexOutOfBoundsException("index i out of bounds");
+    }
+
+    /**
+     * Is site (row <tt>i</tt>, column <tt>j</tt> open?
+     *
+     * @param i the row
+     * @param j the column
+     * @return true if site is open, otherwise false
+     */
+    public boolean isOpen(int i, int j) {
+        return (sites.get(xyTo1D(i, j)) & OPEN) != 0;
+    }
+
+    /**
+     * Is site (row <tt>i</tt>, column <tt>j</tt>) full?
+     *
+     * @param i the row
+     * @param j the column
+     * @return true if site is full, otherwise false
+     */
+    public boolean isFull(int i, int j) {
+        int p = xyTo1D(i, j);
+        if ((sites.get(p) & OPEN) == 0)
+            return false;
+
+        while (true) {
+            int r = find(p);
+            long w = sites.get(r);
+            if ((w & TOP) != 0)
+                return true;
+            if (parentOf(r, w) == r)
+                return false;   // still a root when read
+        }
+    }
+
+    /**
+     * Does the system percolate?
+     *
+     * @return true if percolates, otherwise false
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * Uniquely map 2D grid coordinates to 1D UF coordinates
+     *
+     * @param i the row
+     * @param j the column
+     * @return the 1D coordinate
+     */
+    private int xyTo1D(int i, int j) {
+        validate(i);
+        validate(j);
+        return (i - 1) * N + (j - 1);
+    }
+}
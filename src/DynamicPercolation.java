@@ -0,0 +1,405 @@
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: percolation with sites that open and close again, answered offline
+ * <p/>
+ * A time-ordered log of open and close events (one step each) and of
+ * fullness queries is recorded first; solve() then answers whether the
+ * system percolates after every step and every fullness query, using
+ * offline dynamic connectivity:
+ * <ul>
+ * <li>each site is open during a set of step intervals, and each pair of
+ * adjacent sites is connected during the intersections of theirs;</li>
+ * <li>every interval is added to the O(log E) nodes of a segment tree over
+ * the steps that cover it;</li>
+ * <li>a depth-first walk of the tree applies the operations of each node
+ * to a union-find with union by size and no path compression, answers
+ * the queries at the leaves, and rolls the operations back on the way
+ * up.</li>
+ * </ul>
+ * As in Percolation, roots carry "connected to top" and "connected to
+ * bottom" flags instead of virtual sites, so there is no backwash. The
+ * total cost is O(E log E log N) for E events.
+ */
+public class DynamicPercolation {
+
+    private static final byte OPEN = 1, TOP = 2, BOTTOM = 4;
+    private static final byte SPANNING = TOP | BOTTOM;
+
+    private final int N;
+    private final IntList events = new IntList();       // +(p + 1) open, -(p + 1) close
+    private final IntList querySite = new IntList();
+    private final IntList queryStep = new IntList();
+
+    private boolean[] percolates;   // after each step, once solved
+    private boolean[] full;         // answer of each query, once solved
+
+    // rollback union-find, only used by solve()
+    private int[] parent, size;
+    private byte[] state;
+    private int spanning;           // open roots touching top and bottom
+    private IntList undo;
+
+    /**
+     * Create an N-by-N grid with all sites blocked and an empty log
+     *
+     * @param N dimension of the grid
+     */
+    public DynamicPercolation(int N) {
+        if (N <= 0 || (long) N * N >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException();
+        this.N = N;
+    }
+
+    /**
+     * Replay a log file: the grid size N, then lines
+     * "open i j", "close i j" or "full i j"
+     *
+     * @param args the program arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        int N = in.readInt();
+        DynamicPercolation dp = new DynamicPercolation(N);
+        Map<Integer, String> queries = new HashMap<>();
+        while (!in.isEmpty()) {
+            String op = in.readString();
+            int i = in.readInt();
+            int j = in.readInt();
+            if (op.equals("open")) dp.open(i, j);
+            else if (op.equals("close")) dp.close(i, j);
+            else if (op.equals("full")) queries.put(dp.queryFull(i, j), i + " " + j);
+            else throw new IllegalArgumentException("unknown event " + op);
+        }
+
+        dp.solve();
+        for (int step = 0; step <= dp.steps(); step++) {
+            if (step == 0 || dp.percolates(step) != dp.percolates(step - 1))
+                StdOut.printf("step %d: %s%n", step,
+                        dp.percolates(step) ? "percolates" : "does not percolate");
+        }
+        for (int q = 0; q < queries.size(); q++) {
+            StdOut.printf("full %s: %b%n", queries.get(q), dp.isFull(q));
+        }
+    }
+
+    /**
+     * Log the opening of site (row <tt>i</tt>, column <tt>j</tt>)
+     *
+     * @param i the row
+     * @param j the column
+     */
+    public void open(int i, int j) {
+        events.add(xyTo1D(i, j) + 1);
+        invalidate();
+    }
+
+    /**
+     * Log the closing of site (row <tt>i</tt>, column <tt>j</tt>)
+     *
+     * @param i the row
+     * @param j the column
+     */
+    public void close(int i, int j) {
+        events.add(-(xyTo1D(i, j) + 1));
+        invalidate();
+    }
+
+    /**
+     * Log a query whether site (row <tt>i</tt>, column <tt>j</tt>) is full
+     * after the events logged so far
+     *
+     * @param i the row
+     * @param j the column
+     * @return the query number, to pass to isFull()
+     */
+    public int queryFull(int i, int j) {
+        querySite.add(xyTo1D(i, j));
+        queryStep.add(events.size());
+        invalidate();
+        return querySite.size() - 1;
+    }
+
+    /**
+     * Number of logged open and close events
+     *
+     * @return the number of steps
+     */
+    public int steps() {
+        return events.size();
+    }
+
+    /**
+     * Does the system percolate after <tt>step</tt> events?
+     *
+     * @param step the step, 0 for the initial blocked grid
+     * @return true if percolates, otherwise false
+     */
+    public boolean percolates(int step) {
+        requireSolved();
+        if (step < 0 || step > events.size())
+            throw new IndexOutOfBoundsException("step out of bounds");
+        return percolates[step];
+    }
+
+    /**
+     * Answer of a fullness query
+     *
+     * @param query the query number returned by queryFull()
+     * @return true if the site was full, otherwise false
+     */
+    public boolean isFull(int query) {
+        requireSolved();
+        if (query < 0 || query >= full.length)
+            throw new IndexOutOfBoundsException("query out of bounds");
+        return full[query];
+    }
+
+    private void invalidate() {
+        percolates = null;
+        full = null;
+    }
+
+    private void requireSolved() {
+        if (percolates == null)
+            throw new IllegalStateException("call solve() first");
+    }
+
+    /**
+     * Answer every step and query of the log
+     */
+    public void solve() {
+        int E = events.size();
+        int leaves = E + 1;     // states after 0..E events
+        IntList[] ops = new IntList[4 * leaves];
+
+        // open intervals [start, end] of every site, in step order
+        Map<Integer, IntList> intervals = new HashMap<>();
+        Map<Integer, Integer> openedAt = new HashMap<>();
+        for (int t = 1; t <= E; t++) {
+            int e = events.get(t - 1);
+            int p = Math.abs(e) - 1;
+            if (e > 0 && !openedAt.containsKey(p)) {
+                openedAt.put(p, t);
+            } else if (e < 0 && openedAt.containsKey(p)) {
+                interval(intervals, p, openedAt.remove(p), t - 1);
+            }
+        }
+        for (Map.Entry<Integer, Integer> o : openedAt.entrySet()) {
+            interval(intervals, o.getKey(), o.getValue(), E);
+        }
+
+        // activate each site during its intervals, and connect it to its
+        // right and lower neighbours while both are open
+        for (Map.Entry<Integer, IntList> entry : intervals.entrySet()) {
+            int p = entry.getKey();
+            IntList a = entry.getValue();
+            for (int k = 0; k < a.size(); k += 2) {
+                insert(ops, 1, 0, E, a.get(k), a.get(k + 1), p, -1);
+            }
+            if (p % N < N - 1) edges(ops, E, p, a, intervals.get(p + 1), p + 1);
+            if (p / N < N - 1) edges(ops, E, p, a, intervals.get(p + N), p + N);
+        }
+
+        // queries grouped by step
+        int[] first = new int[leaves + 1];
+        for (int q = 0; q < queryStep.size(); q++) first[queryStep.get(q) + 1]++;
+        for (int t = 0; t < leaves; t++) first[t + 1] += first[t];
+        int[] byStep = new int[queryStep.size()];
+        int[] next = Arrays.copyOf(first, leaves);
+        for (int q = 0; q < queryStep.size(); q++) byStep[next[queryStep.get(q)]++] = q;
+
+        parent = new int[N * N];
+        size = new int[N * N];
+        state = new byte[N * N];
+        for (int p = 0; p < parent.length; p++) {
+            parent[p] = p;
+            size[p] = 1;
+        }
+        spanning = 0;
+        undo = new IntList();
+
+        percolates = new boolean[leaves];
+        full = new boolean[querySite.size()];
+        walk(ops, 1, 0, E, first, byStep);
+
+        parent = size = null;
+        state = null;
+        undo = null;
+    }
+
+    private static void interval(Map<Integer, IntList> intervals, int p, int start, int end) {
+        if (start > end) return;
+        intervals.computeIfAbsent(p, k -> new IntList()).add(start).add(end);
+    }
+
+    // add the union of p and q during the intersections of their intervals
+    private void edges(IntList[] ops, int E, int p, IntList a, IntList b, int q) {
+        if (b == null) return;
+        for (int x = 0, y = 0; x < a.size() && y < b.size(); ) {
+            int lo = Math.max(a.get(x), b.get(y));
+            int hi = Math.min(a.get(x + 1), b.get(y + 1));
+            if (lo <= hi) insert(ops, 1, 0, E, lo, hi, p, q);
+            if (a.get(x + 1) < b.get(y + 1)) x += 2;
+            else y += 2;
+        }
+    }
+
+    // add operation (p, q) to the segment tree nodes covering [lo, hi];
+    // q == -1 activates site p
+    private static void insert(IntList[] ops, int node, int l, int r,
+                               int lo, int hi, int p, int q) {
+        if (hi < l || r < lo) return;
+        if (lo <= l && r <= hi) {
+            if (ops[node] == null) ops[node] = new IntList();
+            ops[node].add(p).add(q);
+            return;
+        }
+        int m = (l + r) >>> 1;
+        insert(ops, 2 * node, l, m, lo, hi, p, q);
+        insert(ops, 2 * node + 1, m + 1, r, lo, hi, p, q);
+    }
+
+    private void walk(IntList[] ops, int node, int l, int r, int[] first, int[] byStep) {
+        int mark = undo.size();
+
+        // activations first: a site is always activated at an ancestor or
+        // at the same node as the edges that touch it
+        IntList o = ops[node];
+        if (o != null) {
+            for (int k = 0; k < o.size(); k += 2) {
+                if (o.get(k + 1) == -1) activate(o.get(k));
+            }
+            for (int k = 0; k < o.size(); k += 2) {
+                if (o.get(k + 1) != -1) union(o.get(k), o.get(k + 1));
+            }
+        }
+
+        if (l == r) {
+            percolates[l] = spanning > 0;
+            for (int k = first[l]; k < first[l + 1]; k++) {
+                int q = byStep[k];
+                int p = querySite.get(q);
+                full[q] = (state[p] & OPEN) != 0 && (state[find(p)] & TOP) != 0;
+            }
+        } else {
+            int m = (l + r) >>> 1;
+            walk(ops, 2 * node, l, m, first, byStep);
+            walk(ops, 2 * node + 1, m + 1, r, first, byStep);
+        }
+
+        rollback(mark);
+    }
+
+    private void activate(int p) {
+        byte flags = OPEN;
+        if (p < N) flags |= TOP;
+        if (p >= N * (N - 1)) flags |= BOTTOM;
+        state[p] = flags;
+        if ((flags & SPANNING) == SPANNING) spanning++;
+
+        undo.add(p).add(-1).add(0).add(0);
+    }
+
+    private void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ)
+            return;
+
+        // make the smaller tree a child of the larger one
+        if (size[rootP] < size[rootQ]) {
+            int t = rootP;
+            rootP = rootQ;
+            rootQ = t;
+        }
+
+        byte before = state[rootP];
+        int delta = -spans(rootP) - spans(rootQ);
+        parent[rootQ] = rootP;
+        size[rootP] += size[rootQ];
+        state[rootP] |= state[rootQ] & SPANNING;
+        delta += spans(rootP);
+        spanning += delta;
+
+        undo.add(rootQ).add(rootP).add(before).add(delta);
+    }
+
+    private int spans(int root) {
+        return (state[root] & SPANNING) == SPANNING ? 1 : 0;
+    }
+
+    private void rollback(int mark) {
+        while (undo.size() > mark) {
+            int delta = undo.pop();
+            byte before = (byte) undo.pop();
+            int root = undo.pop();
+            int child = undo.pop();
+            if (root == -1) {
+                // deactivate
+                if ((state[child] & SPANNING) == SPANNING) spanning--;
+                state[child] = 0;
+            } else {
+                parent[child] = child;
+                size[root] -= size[child];
+                state[root] = before;
+                spanning -= delta;
+            }
+        }
+    }
+
+    private int find(int p) {
+        while (p != parent[p]) p = parent[p];
+        return p;
+    }
+
+    /**
+     * Validate index in range
+     *
+     * @param i the index
+     * @throws IndexOutOfBoundsException
+     */
+    private void validate(int i) {
+        if (1 > i || N < i)
+            throw new IndexOutOfBoundsException("index i out of bounds");
+    }
+
+    private int xyTo1D(int i, int j) {
+        validate(i);
+        validate(j);
+        return (i - 1) * N + (j - 1);
+    }
+
+    /**
+     * Growable array of ints
+     */
+    private static class IntList {
+        private int[] a = new int[4];
+        private int n;
+
+        IntList add(int x) {
+            if (n == a.length) a = Arrays.copyOf(a, 2 * n);
+            a[n++] = x;
+            return this;
+        }
+
+        int get(int i) {
+            return a[i];
+        }
+
+        int pop() {
+            return a[--n];
+        }
+
+        int size() {
+            return n;
+        }
+    }
+}
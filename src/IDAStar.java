@@ -0,0 +1,178 @@
+import java.util.Arrays;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: iterative-deepening A* for the slider puzzle
+ * <p/>
+ * Runs depth-first searches bounded by f = g + h, raising the bound to
+ * the smallest f that exceeded it until a goal is reached. The heuristic
+ * h is admissible, so the first solution found is optimal. The search
+ * makes and unmakes moves on one mutable array of tiles (and of their
+ * positions), updating the Manhattan distance from Board's per-N table,
+ * so memory is linear in the depth of the solution. A move straight back
+ * to the previous board is never made.
+ */
+final class IDAStar {
+
+    private static final int FOUND = -1;
+
+    private final int N;
+    private final int[] tiles;
+    private final int[] positions;      // positions[t] = index of tile t
+    private final byte[] distances;     // Board.distances(N)
+    private final Solver.Heuristic heuristic;
+    private final PatternDatabase pdb;
+    private int blank, manhattan;
+    private final int[] conflicts;      // linear conflict of each row, then column
+    private final int[] scratch;
+    private int conflict;               // sum of conflicts
+    private int[] path = new int[64];   // path[g] = blank index after move g
+    private int depth;                  // number of moves of the solution
+    private long nodes;                 // nodes visited, to check for interrupts
+
+    private IDAStar(Board initial, Solver.Heuristic heuristic, PatternDatabase pdb) {
+        N = initial.dimension();
+        tiles = initial.tiles();
+        positions = new int[tiles.length];
+        for (int k = 0; k < tiles.length; ++k) {
+            positions[tiles[k]] = k;
+        }
+        this.heuristic = heuristic;
+        this.pdb = pdb;
+
+        // linear conflicts are kept per line and updated as blocks move
+        conflicts = new int[2 * N];
+        scratch = new int[N];
+        if (heuristic == Solver.Heuristic.LINEAR_CONFLICT) {
+            for (int a = 0; a < N; ++a) {
+                conflicts[a] = Board.lineConflict(tiles, N, a, false, scratch);
+                conflicts[N + a] = Board.lineConflict(tiles, N, a, true, scratch);
+                conflict += conflicts[a] + conflicts[N + a];
+            }
+        }
+        distances = Board.distances(N);
+        blank = initial.blank();
+        manhattan = initial.manhattan();
+    }
+
+    /**
+     * Find a shortest solution of a solvable board
+     *
+     * @param initial   the board
+     * @param heuristic the heuristic
+     * @param pdb       the pattern database, for PATTERN_DATABASE
+     * @return the index of the blank after each move
+     */
+    static int[] solve(Board initial, Solver.Heuristic heuristic, PatternDatabase pdb) {
+        IDAStar search = new IDAStar(initial, heuristic, pdb);
+
+        int bound = search.estimate();
+        while (true) {
+            int t = search.search(0, bound, -1);
+            if (t >= 0) {
+                bound = t;
+                continue;
+            }
+
+            return Arrays.copyOf(search.path, search.depth);
+        }
+    }
+
+    /**
+     * Depth-first search below the current board
+     *
+     * @param g     number of moves made
+     * @param bound the bound on f
+     * @param from  index the blank came from, -1 at the root
+     * @return FOUND, or the smallest f above the bound
+     */
+    private int search(int g, int bound, int from) {
+        if ((++nodes & Solver.INTERRUPT_CHECK) == 0)
+            Solver.checkInterrupted();
+
+        int f = g + estimate();
+        if (f > bound)
+            return f;
+        if (manhattan == 0) {
+            depth = g;
+            return FOUND;
+        }
+
+        if (g == path.length)
+            path = Arrays.copyOf(path, 2 * g);
+
+        int min = Integer.MAX_VALUE;
+        int i = blank / N, j = blank % N;
+        for (int d = 0; d < 4; ++d) {
+            int k;
+            if (d == 0) {
+                if (i == 0) continue;
+                k = blank - N;          // move from above
+            } else if (d == 1) {
+                if (i == N - 1) continue;
+                k = blank + N;          // move from below
+            } else if (d == 2) {
+                if (j == 0) continue;
+                k = blank - 1;          // move from left
+            } else {
+                if (j == N - 1) continue;
+                k = blank + 1;          // move from right
+            }
+            if (k == from)
+                continue;
+
+            int previous = blank;
+            make(k);
+            path[g] = k;
+            int t = search(g + 1, bound, previous);
+            unmake(previous);
+
+            if (t == FOUND)
+                return FOUND;
+            if (t < min)
+                min = t;
+        }
+        return min;
+    }
+
+    private int estimate() {
+        if (heuristic == Solver.Heuristic.LINEAR_CONFLICT)
+            return manhattan + conflict;
+        return Solver.estimate(heuristic, pdb, N, tiles, positions, manhattan);
+    }
+
+    // slide the block at k into the blank
+    private void make(int k) {
+        int n = N * N;
+        int t = tiles[k];
+        manhattan += distances[t * n + blank] - distances[t * n + k];
+        tiles[blank] = t;
+        tiles[k] = 0;
+        positions[t] = blank;
+        positions[0] = k;
+
+        // the block changed row or column, so only those two lines change
+        if (heuristic == Solver.Heuristic.LINEAR_CONFLICT) {
+            if (k / N == blank / N) {
+                update(N + k % N, k % N, true);
+                update(N + blank % N, blank % N, true);
+            } else {
+                update(k / N, k / N, false);
+                update(blank / N, blank / N, false);
+            }
+        }
+        blank = k;
+    }
+
+    private void update(int line, int a, boolean column) {
+        conflict -= conflicts[line];
+        conflicts[line] = Board.lineConflict(tiles, N, a, column, scratch);
+        conflict += conflicts[line];
+    }
+
+    // slide the block next to the blank back to index k
+    private void unmake(int k) {
+        make(k);
+    }
+}
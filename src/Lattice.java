@@ -0,0 +1,204 @@
+import java.util.Arrays;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: geometry of a percolation lattice as flat lookup tables
+ * <p/>
+ * The sites of an N x ... x N lattice are stored in a flat array padded
+ * with one layer of sites that never open, so every site, even on the
+ * edge, has the same neighbour offsets and LatticePercolation never has
+ * to check bounds. A site's coordinates, each 1 through N, are the digits
+ * of its flat index in base N + 2; the first coordinate is the row, row 1
+ * is the top and row N is the bottom.
+ * <p/>
+ * A boundary table holds the TOP / BOTTOM flags a site gets when it
+ * opens, in place of virtual top and bottom sites, and marks the padding.
+ * Lattices are immutable and may be shared between grids.
+ */
+public final class Lattice {
+
+    static final byte TOP = 2, BOTTOM = 4, PAD = 8;
+
+    private final String name;
+    private final int N, dimension;
+    private final int width;        // N + 2
+    private final int layer;        // N^(dimension - 1) sites per row
+    private final int[] offsets;    // flat offsets of the neighbours
+    private final byte[] boundary;  // TOP, BOTTOM or PAD flags per site
+
+    private Lattice(String name, int N, int dimension, int[] offsets) {
+        this.name = name;
+        this.N = N;
+        this.dimension = dimension;
+        this.width = N + 2;
+        this.offsets = offsets;
+
+        int layer = 1;
+        for (int d = 1; d < dimension; d++) layer *= N;
+        this.layer = layer;
+
+        // mark everything as padding, then clear the flags of real sites
+        int rowSize = 1;
+        for (int d = 1; d < dimension; d++) rowSize *= width;
+        boundary = new byte[rowSize * width];
+        Arrays.fill(boundary, PAD);
+        for (int k = 0, n = layer * N; k < n; k++) {
+            int p = site(k);
+            int row = p / rowSize;
+            boundary[p] = 0;
+            if (row == 1) boundary[p] |= TOP;
+            if (row == N) boundary[p] |= BOTTOM;
+        }
+    }
+
+    /**
+     * N-by-N square lattice, four neighbours per site
+     *
+     * @param N dimension of the lattice
+     * @return the lattice
+     */
+    public static Lattice square(int N) {
+        int W = checkedWidth(N, 2);
+        return new Lattice("square", N, 2, new int[]{-W, -1, 1, W});
+    }
+
+    /**
+     * N-by-N-by-N simple cubic lattice, six neighbours per site
+     *
+     * @param N dimension of the lattice
+     * @return the lattice
+     */
+    public static Lattice cubic(int N) {
+        int W = checkedWidth(N, 3);
+        return new Lattice("cubic", N, 3, new int[]{-W * W, -W, -1, 1, W, W * W});
+    }
+
+    /**
+     * N-by-N triangular lattice, six neighbours per site.
+     * <p/>
+     * The rows are sheared into a rhombus: besides its square neighbours,
+     * site (i, j) is adjacent to (i - 1, j + 1) and (i + 1, j - 1).
+     *
+     * @param N dimension of the lattice
+     * @return the lattice
+     */
+    public static Lattice triangular(int N) {
+        int W = checkedWidth(N, 2);
+        return new Lattice("triangular", N, 2, new int[]{-W, -W + 1, -1, 1, W - 1, W});
+    }
+
+    // width of the padded lattice, if its flat index fits in an int
+    private static int checkedWidth(int N, int dimension) {
+        if (N <= 0 || Math.pow(N + 2.0, dimension) >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException();
+        return N + 2;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int N() {
+        return N;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Number of sites, not counting the padding
+     *
+     * @return N^dimension
+     */
+    public int sites() {
+        return layer * N;
+    }
+
+    /**
+     * Length of the flat arrays, including the padding
+     *
+     * @return (N + 2)^dimension
+     */
+    public int size() {
+        return boundary.length;
+    }
+
+    /**
+     * Flat index of site (row <tt>i</tt>, column <tt>j</tt>) of a
+     * 2-dimensional lattice
+     *
+     * @param i the row
+     * @param j the column
+     * @return the flat index
+     */
+    public int index(int i, int j) {
+        if (dimension != 2)
+            throw new IllegalArgumentException("not a 2-dimensional lattice");
+        validate(i);
+        validate(j);
+        return i * width + j;
+    }
+
+    /**
+     * Flat index of site (row <tt>i</tt>, column <tt>j</tt>, depth
+     * <tt>k</tt>) of a 3-dimensional lattice
+     *
+     * @param i the row
+     * @param j the column
+     * @param k the depth
+     * @return the flat index
+     */
+    public int index(int i, int j, int k) {
+        if (dimension != 3)
+            throw new IllegalArgumentException("not a 3-dimensional lattice");
+        validate(i);
+        validate(j);
+        validate(k);
+        return (i * width + j) * width + k;
+    }
+
+    /**
+     * Flat index of the k-th site in row-major order, 0 &le; k &lt; sites()
+     *
+     * @param k the site number
+     * @return the flat index
+     */
+    public int site(int k) {
+        int p = 0;
+        for (int d = 0, s = layer; d < dimension; d++, s /= N) {
+            p = p * width + k / s + 1;
+            k %= s;
+        }
+        return p;
+    }
+
+    /**
+     * Flat offsets from a site to its neighbours
+     *
+     * @return the offsets, not to be modified
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * TOP / BOTTOM flags of every flat index, PAD for the padding
+     *
+     * @return the table, not to be modified
+     */
+    byte[] boundary() {
+        return boundary;
+    }
+
+    private void validate(int i) {
+        if (1 > i || N < i)
+            throw new IndexOutOfBoundsException("index out of bounds");
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + N + (dimension == 3 ? "^3" : "^2");
+    }
+}
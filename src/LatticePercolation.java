@@ -0,0 +1,244 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+import java.util.Arrays;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: percolation on any lattice described by flat neighbour tables
+ * <p/>
+ * Sites are addressed by their flat Lattice index. A single union-find
+ * (union by rank, path halving) is kept over the padded array; a newly
+ * opened site takes its TOP / BOTTOM flags from the lattice's boundary
+ * table, and roots merge the flags of the components they join, so there
+ * are neither virtual sites nor backwash. Opening a site walks the
+ * lattice's neighbour offsets with no bounds checks: padding sites are
+ * never open.
+ */
+public class LatticePercolation {
+
+    static final byte OPEN = 1, TOP = Lattice.TOP, BOTTOM = Lattice.BOTTOM;
+    static final byte SPANNING = TOP | BOTTOM;
+
+    final Lattice lattice;
+    final byte[] state;             // OPEN per site; TOP, BOTTOM per root
+    private final int[] offsets;
+    private final byte[] boundary;
+    private final int[] parent;     // parent[p] = parent of site p
+    private final byte[] rank;      // rank[p] = rank of subtree rooted at p
+    private final PercolationMetrics metrics;
+    private boolean percolates;
+
+    /**
+     * Create a lattice with all sites blocked
+     *
+     * @param lattice the lattice
+     */
+    public LatticePercolation(Lattice lattice) {
+        this.lattice = lattice;
+        offsets = lattice.offsets();
+        boundary = lattice.boundary();
+        parent = new int[lattice.size()];
+        rank = new byte[lattice.size()];
+        state = new byte[lattice.size()];
+        metrics = PercolationMetrics.ENABLED ? new PercolationMetrics() : null;
+
+        reset();
+    }
+
+    /**
+     * Estimate the percolation threshold of a lattice by opening random
+     * sites until it percolates
+     * <p/>
+     * Usage: square|cubic|triangular N T
+     *
+     * @param args the program arguments
+     */
+    public static void main(String[] args) {
+        int N = Integer.parseInt(args[1]);
+        int T = Integer.parseInt(args[2]);
+
+        Lattice lattice;
+        switch (args[0]) {
+            case "square":
+                lattice = Lattice.square(N);
+                break;
+            case "cubic":
+                lattice = Lattice.cubic(N);
+                break;
+            case "triangular":
+                lattice = Lattice.triangular(N);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown lattice " + args[0]);
+        }
+
+        LatticePercolation perc = new LatticePercolation(lattice);
+        int n = lattice.sites();
+        ThresholdStats stats = new ThresholdStats(n);
+        for (int t = 0; t < T; t++) {
+            perc.reset();
+            int count = 0;
+            while (!perc.percolates()) {
+                int p = lattice.site(StdRandom.uniform(n));
+                if (!perc.isOpen(p)) {
+                    perc.open(p);
+                    count++;
+                }
+            }
+            stats.add(count);
+        }
+
+        StdOut.printf("lattice                 = %s%n", lattice);
+        StdOut.printf("mean                    = %.10f%n", stats.mean());
+        StdOut.printf("stddev                  = %.10f%n", stats.stddev());
+    }
+
+    /**
+     * Block all sites again, so the grid can be reused without allocating
+     */
+    public void reset() {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        Arrays.fill(rank, (byte) 0);
+        Arrays.fill(state, (byte) 0);
+        percolates = false;
+        if (PercolationMetrics.ENABLED) metrics.clear();
+    }
+
+    /**
+     * Hot-path counters of this grid, null unless metrics are enabled
+     *
+     * @return the counters
+     */
+    PercolationMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * The lattice of this grid
+     *
+     * @return the lattice
+     */
+    public Lattice lattice() {
+        return lattice;
+    }
+
+    /**
+     * Open site <tt>p</tt> if it is not open already
+     *
+     * @param p the flat index of the site
+     */
+    public void open(int p) {
+        if (boundary[p] == Lattice.PAD)
+            throw new IndexOutOfBoundsException("not a site of the lattice");
+        if (isOpen(p))
+            return;
+
+        openSite(p);
+    }
+
+    /**
+     * Open blocked site p, without any checks
+     *
+     * @param p the flat index of the site
+     */
+    final void openSite(int p) {
+        // a newly opened site is its own root
+        int root = p;
+        byte flags = (byte) (OPEN | boundary[p]);
+        state[p] = flags;
+
+        // connect to all adjacent open sites, keeping track of the root
+        for (int offset : offsets) {
+            int q = p + offset;
+            if ((state[q] & OPEN) == 0)
+                continue;
+
+            int rootQ = find(q);
+            if (rootQ != root)
+                root = link(root, rootQ);
+        }
+
+        if ((state[root] & SPANNING) == SPANNING)
+            percolates = true;
+    }
+
+    /**
+     * Join two different roots
+     *
+     * @param rootP the first root
+     * @param rootQ the second root
+     * @return the root of the joined component
+     */
+    private int link(int rootP, int rootQ) {
+        if (PercolationMetrics.ENABLED) metrics.unions++;
+
+        // make the root of the shorter tree point to the root of the taller
+        // tree, and carry its top / bottom flags over to the new root
+        if (rank[rootP] < rank[rootQ]) {
+            parent[rootP] = rootQ;
+            state[rootQ] |= state[rootP] & SPANNING;
+            return rootQ;
+        }
+        parent[rootQ] = rootP;
+        state[rootP] |= state[rootQ] & SPANNING;
+        if (rank[rootP] == rank[rootQ]) rank[rootP]++;
+        return rootP;
+    }
+
+    /**
+     * Find the root of site p, halving the path along the way
+     *
+     * @param p the site
+     * @return the root
+     */
+    final int find(int p) {
+        int steps = 0;
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+            steps++;
+        }
+        if (PercolationMetrics.ENABLED) metrics.find(steps);
+        return p;
+    }
+
+    /**
+     * Is site <tt>p</tt> open?
+     *
+     * @param p the flat index of the site
+     * @return true if site is open, otherwise false
+     */
+    public boolean isOpen(int p) {
+        if (PercolationMetrics.ENABLED) metrics.isOpenChecks++;
+        return (state[p] & OPEN) != 0;
+    }
+
+    /**
+     * Is site <tt>p</tt> full, i.e. open and connected to the top row
+     * through open sites?
+     *
+     * @param p the flat index of the site
+     * @return true if site is full, otherwise false
+     */
+    public boolean isFull(int p) {
+        if (!isOpen(p))
+            return false;
+
+        return (state[find(p)] & TOP) != 0;
+    }
+
+    /**
+     * Does the system percolate, i.e. is some open site in the bottom row
+     * connected to the top row?
+     *
+     * @return true if percolates, otherwise false
+     */
+    public boolean percolates() {
+        // set once some component touches both the top and the bottom row
+        return percolates;
+    }
+}
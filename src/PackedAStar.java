@@ -0,0 +1,268 @@
+import java.util.Arrays;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: allocation-free A* for slider puzzles up to 4-by-4
+ * <p/>
+ * A board of up to 16 cells is a long of 4-bit tiles, so a search node is
+ * a row of primitive arrays, an arena indexed by node number: the packed
+ * board, the index of its parent, g, h and the blank. The arrays double
+ * when full, so a long search allocates a few dozen arrays and no objects
+ * per node.
+ * <p/>
+ * f = g + h is a small integer, so the frontier is an array of buckets,
+ * one per (f, h), each a stack linked through the arena. A bitmap per f
+ * marks the buckets that hold nodes, so both push and pop are O(1): pop
+ * takes the lowest f and, within it, the lowest h, as Solver's priority
+ * queue does. The closed set is Solver's TranspositionTable, keyed by a
+ * mix of the packed board.
+ */
+final class PackedAStar {
+
+    static final int MAX_N = 4;                     // largest N packed in a long
+
+    private static final int H = 128;               // buckets per f; h < H
+    private static final int WORDS = H / 64;        // bitmap words per f
+
+    private final int N, n;
+    private final Solver.Heuristic heuristic;
+    private final PatternDatabase pdb;
+    private final byte[] distances;                 // Board.distances(N)
+    private final TranspositionTable closed;
+
+    // the arena: node i is (boards[i], parents[i], g[i], h[i], blanks[i])
+    private long[] boards;
+    private int[] parents;
+    private int[] next;                 // next node of the same bucket
+    private byte[] g, h, blanks;       // unsigned
+    private int size;
+
+    // the frontier: heads[f * H + h] is the last node pushed, or -1
+    private int[] heads;
+    private long[] occupied;            // bit h of the WORDS words of f
+    private int minF;                   // no bucket below f = minF is occupied
+
+    // scratch for estimates other than Manhattan distance
+    private final int[] tiles, positions, scratch;
+
+    private PackedAStar(int N, Solver.Heuristic heuristic, PatternDatabase pdb,
+                        int closedCapacity) {
+        this.N = N;
+        n = N * N;
+        this.heuristic = heuristic;
+        this.pdb = pdb;
+        distances = Board.distances(N);
+        closed = new TranspositionTable(closedCapacity);
+
+        int capacity = 1 << 10;
+        boards = new long[capacity];
+        parents = new int[capacity];
+        next = new int[capacity];
+        g = new byte[capacity];
+        h = new byte[capacity];
+        blanks = new byte[capacity];
+
+        heads = new int[64 * H];
+        Arrays.fill(heads, -1);
+        occupied = new long[64 * WORDS];
+
+        tiles = new int[n];
+        positions = new int[n];
+        scratch = new int[N];
+    }
+
+    /**
+     * Find a shortest solution of a solvable board of at most 4-by-4
+     *
+     * @param initial        the board
+     * @param heuristic      the heuristic
+     * @param pdb            the pattern database, for PATTERN_DATABASE
+     * @param closedCapacity maximum number of closed set entries
+     * @return the index of the blank after each move
+     */
+    static int[] solve(Board initial, Solver.Heuristic heuristic, PatternDatabase pdb,
+                       int closedCapacity) {
+        PackedAStar search = new PackedAStar(initial.dimension(), heuristic, pdb,
+                closedCapacity);
+
+        long board = 0, goal = 0;
+        for (int k = 0; k < search.n; ++k) {
+            board |= (long) initial.tile(k) << (k << 2);
+            goal |= (long) ((k + 1) % search.n) << (k << 2);
+        }
+        int root = search.add(board, -1, 0, search.estimate(board, initial.manhattan()),
+                initial.blank());
+        search.push(root);
+
+        int node = search.run(goal);
+        int[] path = new int[search.g(node)];
+        for (int i = node; search.parents[i] >= 0; i = search.parents[i]) {
+            path[search.g(i) - 1] = search.blanks[i];
+        }
+        return path;
+    }
+
+    // pop nodes until the goal; the board is solvable, so it is reached
+    private int run(long goal) {
+        for (int count = 1; ; count++) {
+            if ((count & Solver.INTERRUPT_CHECK) == 0)
+                Solver.checkInterrupted();
+
+            int node = pop();
+            if (boards[node] == goal)
+                return node;
+
+            // a board is never worth expanding again in as many moves
+            long key = key(boards[node]);
+            if (closed.closed(key, g(node)))
+                continue;
+            closed.put(key, g(node));
+
+            expand(node);
+        }
+    }
+
+    private void expand(int node) {
+        long board = boards[node];
+        int blank = blanks[node], moves = g(node) + 1;
+        int manhattan = manhattan(node, board);
+        int back = parents[node] >= 0 ? blanks[parents[node]] : -1;
+        int i = blank / N, j = blank % N;
+
+        for (int d = 0; d < 4; ++d) {
+            int k;
+            if (d == 0) {
+                if (i == 0) continue;
+                k = blank - N;
+            } else if (d == 1) {
+                if (i == N - 1) continue;
+                k = blank + N;
+            } else if (d == 2) {
+                if (j == 0) continue;
+                k = blank - 1;
+            } else {
+                if (j == N - 1) continue;
+                k = blank + 1;
+            }
+            // don't undo the move that led here
+            if (k == back)
+                continue;
+
+            // slide tile t from k into the blank
+            long t = (board >>> (k << 2)) & 0xF;
+            long child = board & ~(0xFL << (k << 2)) | t << (blank << 2);
+            if (closed.closed(key(child), moves))
+                continue;
+
+            int m = manhattan + distances[(int) t * n + blank] - distances[(int) t * n + k];
+            push(add(child, node, moves, estimate(child, m), k));
+        }
+    }
+
+    private int g(int node) {
+        return g[node] & 0xFF;
+    }
+
+    private int h(int node) {
+        return h[node] & 0xFF;
+    }
+
+    // Manhattan distance of a node's board
+    private int manhattan(int node, long board) {
+        if (heuristic == Solver.Heuristic.MANHATTAN)
+            return h(node);
+
+        int m = 0;
+        for (int k = 0; k < n; ++k) {
+            m += distances[(int) (board >>> (k << 2) & 0xF) * n + k];
+        }
+        return m;
+    }
+
+    // estimate of a board from its Manhattan distance
+    private int estimate(long board, int manhattan) {
+        if (heuristic == Solver.Heuristic.MANHATTAN)
+            return manhattan;
+
+        for (int k = 0; k < n; ++k) {
+            int t = (int) (board >>> (k << 2)) & 0xF;
+            tiles[k] = t;
+            positions[t] = k;
+        }
+        if (heuristic == Solver.Heuristic.PATTERN_DATABASE)
+            return pdb.estimate(positions);
+
+        int conflicts = 0;
+        for (int a = 0; a < N; ++a) {
+            conflicts += Board.lineConflict(tiles, N, a, false, scratch);
+            conflicts += Board.lineConflict(tiles, N, a, true, scratch);
+        }
+        return manhattan + conflicts;
+    }
+
+    // the table's buckets come from the low bits, so spread them all
+    private static long key(long board) {
+        board = (board ^ (board >>> 33)) * 0xff51afd7ed558ccdL;
+        board = (board ^ (board >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return board ^ (board >>> 33);
+    }
+
+    private int add(long board, int parent, int moves, int estimate, int blank) {
+        if (size == boards.length) {
+            int capacity = 2 * size;
+            boards = Arrays.copyOf(boards, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            next = Arrays.copyOf(next, capacity);
+            g = Arrays.copyOf(g, capacity);
+            h = Arrays.copyOf(h, capacity);
+            blanks = Arrays.copyOf(blanks, capacity);
+        }
+        boards[size] = board;
+        parents[size] = parent;
+        g[size] = (byte) moves;
+        h[size] = (byte) estimate;
+        blanks[size] = (byte) blank;
+        return size++;
+    }
+
+    private void push(int node) {
+        int b = h(node), f = g(node) + b;
+        if (f * H >= heads.length) {
+            int fs = Math.max(2 * heads.length / H, f + 1);
+            int old = heads.length;
+            heads = Arrays.copyOf(heads, fs * H);
+            Arrays.fill(heads, old, heads.length, -1);
+            occupied = Arrays.copyOf(occupied, fs * WORDS);
+        }
+
+        int bucket = f * H + b;
+        next[node] = heads[bucket];
+        heads[bucket] = node;
+        occupied[f * WORDS + (b >>> 6)] |= 1L << b;
+        if (f < minF)
+            minF = f;
+    }
+
+    private int pop() {
+        while (true) {
+            if (minF * H >= heads.length)
+                throw new IllegalStateException("empty frontier");
+
+            for (int w = 0; w < WORDS; ++w) {
+                long bits = occupied[minF * WORDS + w];
+                if (bits == 0)
+                    continue;
+
+                int b = w * 64 + Long.numberOfTrailingZeros(bits);
+                int bucket = minF * H + b;
+                int node = heads[bucket];
+                heads[bucket] = next[node];
+                if (heads[bucket] < 0)
+                    occupied[minF * WORDS + w] &= ~(1L << b);
+                return node;
+            }
+            minF++;
+        }
+    }
+}
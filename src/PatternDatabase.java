@@ -0,0 +1,337 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: additive disjoint pattern database heuristic for the 4-by-4 puzzle
+ * <p/>
+ * The 15 blocks are split into the disjoint patterns {1, 5, 6, 9, 10, 13},
+ * {7, 8, 11, 12, 14, 15} and {2, 3, 4}. For each pattern a table holds,
+ * for every placement of its blocks, the fewest moves of pattern blocks
+ * needed to bring them home, whatever the other blocks do. A move only
+ * moves one block, so the sum of the three tables is an admissible
+ * estimate. Taking the nearest blank region makes it inconsistent: one
+ * move can raise it by more than one.
+ * <p/>
+ * A table is built by a breadth-first search backwards from the goal over
+ * (placement, blank region) states, where the blank region is the set of
+ * free cells the blank can reach without moving a pattern block, and
+ * holds the distance of the nearest region. Each level of the search is
+ * expanded in parallel on a fork-join pool. The tables are written to
+ * files in the directory named by the system property solver.pdb
+ * (default "pdb") and memory-mapped read-only, once per process, by every
+ * Solver that uses them.
+ */
+public final class PatternDatabase {
+
+    private static final int N = 4, CELLS = N * N;
+    private static final int[][] PATTERNS = {
+            {1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}
+    };
+    private static final byte UNSEEN = -1;
+    private static final int CHUNK = 1 << 16;     // entries per build task
+
+    // cells of each column but the last and of each column but the first
+    private static final int NOT_LAST = 0x7777, NOT_FIRST = 0xEEEE;
+
+    private static PatternDatabase instance;
+
+    private final ByteBuffer[] tables;
+    private final int[] slot = new int[CELLS];      // pattern of each block
+
+    private PatternDatabase(ByteBuffer[] tables) {
+        this.tables = tables;
+        for (int p = 0; p < PATTERNS.length; p++) {
+            for (int t : PATTERNS[p]) slot[t] = p;
+        }
+    }
+
+    /**
+     * Build the tables if they are not on disk yet, and report their sizes
+     * <p/>
+     * Usage: [threads]
+     *
+     * @param args the program arguments
+     */
+    public static void main(String[] args) {
+        Stopwatch stopwatch = new Stopwatch();
+        PatternDatabase pdb = args.length > 0
+                ? load(new File(System.getProperty("solver.pdb", "pdb")),
+                Integer.parseInt(args[0]))
+                : fourByFour();
+
+        for (int p = 0; p < PATTERNS.length; p++) {
+            StdOut.printf("%s: %d entries%n", Arrays.toString(PATTERNS[p]),
+                    pdb.tables[p].capacity());
+        }
+        StdOut.printf("elapsed time: %.2f seconds.%n", stopwatch.elapsedTime());
+    }
+
+    /**
+     * The tables of the 4-by-4 puzzle, shared by the whole process; built
+     * on first use if they are not on disk
+     *
+     * @return the pattern database
+     */
+    public static synchronized PatternDatabase fourByFour() {
+        if (instance == null) {
+            instance = load(new File(System.getProperty("solver.pdb", "pdb")),
+                    Runtime.getRuntime().availableProcessors());
+        }
+        return instance;
+    }
+
+    private static PatternDatabase load(File dir, int parallelism) {
+        ByteBuffer[] tables = new ByteBuffer[PATTERNS.length];
+        try {
+            for (int p = 0; p < PATTERNS.length; p++) {
+                File file = new File(dir, fileName(PATTERNS[p]));
+                if (!file.exists()) {
+                    if (!dir.isDirectory() && !dir.mkdirs())
+                        throw new IOException("cannot create " + dir);
+                    write(build(PATTERNS[p], parallelism), file);
+                }
+                tables[p] = map(file, states(PATTERNS[p].length));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PatternDatabase(tables);
+    }
+
+    private static String fileName(int[] pattern) {
+        StringBuilder s = new StringBuilder("pdb-4x4");
+        for (int t : pattern) s.append('-').append(t);
+        return s.append(".bin").toString();
+    }
+
+    // write through a temporary file, so that a concurrent reader never
+    // maps a partial table
+    private static void write(byte[] table, File file) throws IOException {
+        File tmp = File.createTempFile("pdb", ".tmp", file.getParentFile());
+        Files.write(tmp.toPath(), table);
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() != size)
+                throw new IOException(file + " has the wrong size");
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Estimated moves to the goal from a 4-by-4 board
+     *
+     * @param positions positions[t] = index of block t, row-major
+     * @return the sum of the pattern distances
+     */
+    public int estimate(int[] positions) {
+        // rank the placement of each pattern one block at a time, as
+        // rank() does, with the blocks in increasing order
+        int r0 = 0, r1 = 0, r2 = 0;
+        int used0 = 0, used1 = 0, used2 = 0;
+        int i0 = 0, i1 = 0, i2 = 0;
+        for (int t = 1; t < CELLS; t++) {
+            int pos = positions[t];
+            int below = (1 << pos) - 1;
+            switch (slot[t]) {
+                case 0:
+                    r0 = r0 * (CELLS - i0++) + pos - Integer.bitCount(used0 & below);
+                    used0 |= 1 << pos;
+                    break;
+                case 1:
+                    r1 = r1 * (CELLS - i1++) + pos - Integer.bitCount(used1 & below);
+                    used1 |= 1 << pos;
+                    break;
+                default:
+                    r2 = r2 * (CELLS - i2++) + pos - Integer.bitCount(used2 & below);
+                    used2 |= 1 << pos;
+                    break;
+            }
+        }
+
+        return tables[0].get(r0) + tables[1].get(r1) + tables[2].get(r2);
+    }
+
+    // number of placements of k blocks: 16! / (16 - k)!
+    private static int states(int k) {
+        int n = 1;
+        for (int i = 0; i < k; i++) n *= CELLS - i;
+        return n;
+    }
+
+    /**
+     * Rank of a placement of k distinct cells
+     *
+     * @param cells the cells of the pattern blocks, in pattern order
+     * @return the rank, 0 to states(k) - 1
+     */
+    private static int rank(int[] cells) {
+        int rank = 0, used = 0;
+        for (int i = 0; i < cells.length; i++) {
+            int r = cells[i] - Integer.bitCount(used & ((1 << cells[i]) - 1));
+            rank = rank * (CELLS - i) + r;
+            used |= 1 << cells[i];
+        }
+        return rank;
+    }
+
+    // inverse of rank()
+    private static void unrank(int rank, int[] cells) {
+        int k = cells.length;
+        for (int i = k - 1; i >= 0; i--) {
+            cells[i] = rank % (CELLS - i);      // r of block i, for now
+            rank /= CELLS - i;
+        }
+        int used = 0;
+        for (int i = 0; i < k; i++) {
+            // the cells[i]-th free cell
+            int free = ~used & 0xFFFF;
+            for (int r = cells[i]; r > 0; r--) free &= free - 1;
+            cells[i] = Integer.numberOfTrailingZeros(free);
+            used |= 1 << cells[i];
+        }
+    }
+
+    // cells reachable from start through cells that are not occupied
+    private static int region(int start, int occupied) {
+        int free = ~occupied & 0xFFFF;
+        int fill = 1 << start, last;
+        do {
+            last = fill;
+            fill |= ((fill & NOT_LAST) << 1 | (fill & NOT_FIRST) >>> 1
+                    | fill << N | fill >>> N) & free;
+        } while (fill != last);
+        return fill;
+    }
+
+    /**
+     * Breadth-first search backwards from the goal over (placement, blank
+     * region) states; entry rank * 16 + c is the state whose blank region
+     * has c as its lowest cell
+     *
+     * @param pattern     the blocks of the pattern
+     * @param parallelism number of worker threads
+     * @return the distance of every placement
+     */
+    private static byte[] build(int[] pattern, int parallelism) {
+        int k = pattern.length;
+        int states = states(k);
+        byte[] depth = new byte[states * CELLS];
+        Arrays.fill(depth, UNSEEN);
+
+        int[] goal = new int[k];
+        int occupied = 0;
+        for (int i = 0; i < k; i++) {
+            goal[i] = pattern[i] - 1;
+            occupied |= 1 << goal[i];
+        }
+        int region = region(CELLS - 1, occupied);
+        depth[rank(goal) * CELLS + Integer.numberOfTrailingZeros(region)] = 0;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int d = 0; ; d++) {
+                Level level = new Level(depth, k, d, 0, depth.length);
+                pool.invoke(level);
+                if (!level.grown)
+                    break;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // a placement is as far as its nearest blank region
+        byte[] table = new byte[states];
+        for (int s = 0; s < states; s++) {
+            int min = Byte.MAX_VALUE;
+            for (int c = 0; c < CELLS; c++) {
+                int v = depth[s * CELLS + c];
+                if (v != UNSEEN) min = Math.min(min, v);
+            }
+            table[s] = (byte) min;
+        }
+        return table;
+    }
+
+    /**
+     * Fork-join task expanding the states of depth d in entries [lo, hi).
+     * Threads racing to reach a state all write the same depth d + 1.
+     */
+    private static class Level extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] depth;
+        private final int k, d, lo, hi;
+        private boolean grown;
+
+        Level(byte[] depth, int k, int d, int lo, int hi) {
+            this.depth = depth;
+            this.k = k;
+            this.d = d;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > CHUNK) {
+                int mid = (lo + hi) >>> 1;
+                Level left = new Level(depth, k, d, lo, mid);
+                Level right = new Level(depth, k, d, mid, hi);
+                invokeAll(left, right);
+                grown = left.grown || right.grown;
+                return;
+            }
+
+            int[] cells = new int[k];
+            byte next = (byte) (d + 1);
+            for (int e = lo; e < hi; e++) {
+                if (depth[e] != d)
+                    continue;
+
+                unrank(e / CELLS, cells);
+                int occupied = 0;
+                for (int cell : cells) occupied |= 1 << cell;
+                int blank = region(e % CELLS, occupied);
+
+                // slide a pattern block into a neighboring cell of the region
+                for (int i = 0; i < k; i++) {
+                    int from = cells[i];
+                    int col = from % N;
+                    int targets = blank & ((col > 0 ? 1 << (from - 1) : 0)
+                            | (col < N - 1 ? 1 << (from + 1) : 0)
+                            | (1 << (from + N) & 0xFFFF) | (1 << from >>> N));
+                    for (; targets != 0; targets &= targets - 1) {
+                        int to = Integer.numberOfTrailingZeros(targets);
+                        cells[i] = to;
+                        int region = region(from, occupied ^ (1 << from) ^ (1 << to));
+                        int s = rank(cells) * CELLS + Integer.numberOfTrailingZeros(region);
+                        if (depth[s] == UNSEEN) {
+                            depth[s] = next;
+                            grown = true;
+                        }
+                    }
+                    cells[i] = from;
+                }
+            }
+        }
+    }
+}
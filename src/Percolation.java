@@ -1,15 +1,24 @@
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.BitSet;
 
 /**
  * Thomas A. Rieck
  * 1/30/2016
  * Purpose: implement percolation algorithm using weighted quick union
+ * <p/>
+ * The N-by-N grid is kept in a LatticePercolation of the square lattice:
+ * a single union-find structure (union by rank, path halving) over the
+ * padded sites, in which each root carries "connected to top" and
+ * "connected to bottom" flags rather than virtual top and bottom sites,
+ * which would require a second union-find to avoid backwash. Indices are
+ * validated once per call; site (i, j) is flat index i * (N + 2) + j.
  */
 public class Percolation {
 
-    private final int N, top, bottom;
-    private final boolean[] open;
-    private final WeightedQuickUnionUF ufa, ufb;
+    private static final byte OPEN = LatticePercolation.OPEN, TOP = LatticePercolation.TOP;
+
+    private final int N;
+    private final int W;            // row width, including the padding
+    private final LatticePercolation grid;
 
     /**
      * Create an N-by-N grid with all sites blocked
@@ -17,22 +26,26 @@ public class Percolation {
      * @param N dimension of the grid
      */
     public Percolation(int N) {
-        if (N <= 0) throw new IllegalArgumentException();
+        grid = new LatticePercolation(Lattice.square(N));
 
         this.N = N;
-        top = N * N;
-        bottom = top + 1;
-
-        ufa = new WeightedQuickUnionUF(N * N + 2);
-        ufb = new WeightedQuickUnionUF(N * N + 1);
-        open = new boolean[N * N];
-
-        // connect virtual sites
-        for (int i = 0; i < N; i++) {
-            ufa.union(i, top);
-            ufb.union(i, top);
-            ufa.union((N - 1) * N + i, bottom);
-        }
+        this.W = N + 2;
+    }
+
+    /**
+     * Block all sites again, so the grid can be reused without allocating
+     */
+    public void reset() {
+        grid.reset();
+    }
+
+    /**
+     * Hot-path counters of this grid, null unless metrics are enabled
+     *
+     * @return the counters
+     */
+    PercolationMetrics metrics() {
+        return grid.metrics();
     }
 
     /**
@@ -42,39 +55,20 @@ public class Percolation {
      * @param j the column
      */
     public void open(int i, int j) {
-        if (isOpen(i, j))
-            return;
-
         int p = xyTo1D(i, j);
-        open[p] = true;
+        if (grid.isOpen(p))
+            return;
 
-        // connect to all adjacent open sites
+        grid.openSite(p);
+    }
 
-        // connect to above
-        int q;
-        if (i > 1 && isOpen(i - 1, j)) {
-            q = xyTo1D(i - 1, j);
-            ufa.union(p, q);
-            ufb.union(p, q);
-        }
-        // connect to left
-        if (j > 1 && isOpen(i, j - 1)) {
-            q = xyTo1D(i, j - 1);
-            ufa.union(p, q);
-            ufb.union(p, q);
-        }
-        // connect to right
-        if (j < N && isOpen(i, j + 1)) {
-            q = xyTo1D(i, j + 1);
-            ufa.union(p, q);
-            ufb.union(p, q);
-        }
-        // connect to bottom
-        if (i < N && isOpen(i + 1, j)) {
-            q = xyTo1D(i + 1, j);
-            ufa.union(p, q);
-            ufb.union(p, q);
-        }
+    /**
+     * Open blocked site k, in row-major order from 0, without any checks
+     *
+     * @param k the site
+     */
+    void openBlocked(int k) {
+        grid.openSite((k / N + 1) * W + k % N + 1);
     }
 
     /**
@@ -96,8 +90,7 @@ public class Percolation {
      * @return true if site is open, otherwise false
      */
     public boolean isOpen(int i, int j) {
-        int p = xyTo1D(i, j);
-        return open[p];
+        return grid.isOpen(xyTo1D(i, j));
     }
 
     /**
@@ -112,12 +105,7 @@ public class Percolation {
      * @return true if site is full, otherwise false
      */
     public boolean isFull(int i, int j) {
-        if (!isOpen(i, j))
-            return false;
-
-        int p = xyTo1D(i, j);
-
-        return ufb.connected(p, top);
+        return grid.isFull(xyTo1D(i, j));
     }
 
     /**
@@ -130,11 +118,70 @@ public class Percolation {
      * @return true if percolates, otherwise false
      */
     public boolean percolates() {
-        if (N == 1)
-            return isOpen(1, 1);
+        return grid.percolates();
+    }
+
+    /**
+     * Open sites of rows <tt>lo</tt> through <tt>hi</tt>, in one pass
+     *
+     * @param lo the first row
+     * @param hi the last row
+     * @return bit (i - lo) * N + (j - 1) is set if site (i, j) is open
+     */
+    public BitSet openSites(int lo, int hi) {
+        validateRows(lo, hi);
+
+        byte[] state = grid.state;
+        BitSet sites = new BitSet((hi - lo + 1) * N);
+        for (int i = lo, b = 0; i <= hi; i++) {
+            for (int p = i * W + 1, end = p + N; p < end; p++, b++) {
+                if ((state[p] & OPEN) != 0) sites.set(b);
+            }
+        }
+        return sites;
+    }
+
+    /**
+     * Full sites of rows <tt>lo</tt> through <tt>hi</tt>, in one pass.
+     * <p/>
+     * Adjacent open sites are always in the same component, so an open
+     * site whose left or upper neighbour in the range is open shares its
+     * fullness; only the other open sites need a root lookup.
+     *
+     * @param lo the first row
+     * @param hi the last row
+     * @return bit (i - lo) * N + (j - 1) is set if site (i, j) is full
+     */
+    public BitSet fullSites(int lo, int hi) {
+        validateRows(lo, hi);
+
+        byte[] state = grid.state;
+        BitSet sites = new BitSet((hi - lo + 1) * N);
+        for (int i = lo, b = 0; i <= hi; i++) {
+            for (int p = i * W + 1, end = p + N; p < end; p++, b++) {
+                if ((state[p] & OPEN) == 0)
+                    continue;
+
+                // the padding left of column 1 is never open
+                boolean full;
+                if ((state[p - 1] & OPEN) != 0)
+                    full = sites.get(b - 1);
+                else if (i > lo && (state[p - W] & OPEN) != 0)
+                    full = sites.get(b - N);
+                else
+                    full = (state[grid.find(p)] & TOP) != 0;
+
+                if (full) sites.set(b);
+            }
+        }
+        return sites;
+    }
 
-        // check whether virtual top site is connected to virtual bottom site
-        return ufa.connected(top, bottom);
+    private void validateRows(int lo, int hi) {
+        validate(lo);
+        validate(hi);
+        if (lo > hi)
+            throw new IllegalArgumentException("lo > hi");
     }
 
     /**
@@ -147,6 +194,6 @@ public class Percolation {
     private int xyTo1D(int i, int j) {
         validate(i);
         validate(j);
-        return (i - 1) * N + (j - 1);
+        return i * W + j;
     }
 }
@@ -0,0 +1,265 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: batch cluster analysis of a fully known N-by-N open/blocked mask
+ * <p/>
+ * Hoshen-Kopelman labelling split into row bands. Each band is labelled
+ * by its own task with a union-find that only links within the band, the
+ * labels are then merged along the band boundaries, and a final pass
+ * flattens every site to its root. Roots are always linked below the
+ * smaller index, so the label of a cluster is its first site in row-major
+ * order: a cluster touches the top row exactly when its label is less
+ * than N, which gives the full-site mask without any extra search.
+ */
+public class PercolationAnalysis {
+
+    private final int N;
+    private final boolean percolates;
+    private final BitSet full;
+    private final int[] sizes;          // distinct cluster sizes, ascending
+    private final long[] counts;        // counts[k] = clusters of sizes[k] sites
+
+    /**
+     * Analyse an N-by-N mask using all available processors
+     *
+     * @param N    dimension of the grid
+     * @param open the open sites, bit (i - 1) * N + (j - 1) for site (i, j)
+     */
+    public PercolationAnalysis(int N, BitSet open) {
+        this(N, open, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Analyse an N-by-N mask
+     *
+     * @param N           dimension of the grid
+     * @param open        the open sites, bit (i - 1) * N + (j - 1) for site (i, j)
+     * @param parallelism number of worker threads (and row bands)
+     */
+    public PercolationAnalysis(int N, BitSet open, int parallelism) {
+        if (N <= 0 || parallelism <= 0 || (long) N * N >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException();
+        if (open == null)
+            throw new NullPointerException();
+
+        this.N = N;
+        int bands = Math.min(parallelism, N);
+        int[] parent = new int[N * N];
+
+        // label each band independently
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Bands(N, bands, open, parent, 0, bands));
+        } finally {
+            pool.shutdown();
+        }
+
+        // merge labels across band boundaries
+        for (int b = 1; b < bands; b++) {
+            int row = firstRow(N, bands, b);
+            for (int p = row * N, end = p + N; p < end; p++) {
+                if (open.get(p) && open.get(p - N))
+                    union(parent, p, p - N);
+            }
+        }
+
+        // flatten: roots become -size, other sites point at their root.
+        // Parents always have smaller indices, so every site on the path
+        // to the root has already been flattened and the walk is short.
+        full = new BitSet(N * N);
+        int clusters = 0;
+        for (int p = open.nextSetBit(0); p >= 0; p = open.nextSetBit(p + 1)) {
+            int r = p;
+            while (parent[r] >= 0 && parent[r] != r) r = parent[r];
+            if (r == p) {
+                parent[p] = -1;
+                clusters++;
+            } else {
+                parent[p] = r;
+                parent[r]--;
+            }
+            if (r < N) full.set(p);
+        }
+
+        // the histogram is sparse, at most one size per cluster, so sort
+        // the sizes and run-length encode them
+        int[] all = new int[clusters];
+        for (int p = open.nextSetBit(0), c = 0; p >= 0; p = open.nextSetBit(p + 1)) {
+            if (parent[p] < 0) all[c++] = -parent[p];
+        }
+        Arrays.sort(all);
+        int distinct = 0;
+        for (int c = 0; c < clusters; c++) {
+            if (c == 0 || all[c] != all[c - 1]) distinct++;
+        }
+        sizes = new int[distinct];
+        counts = new long[distinct];
+        for (int c = 0, k = -1; c < clusters; c++) {
+            if (c == 0 || all[c] != all[c - 1]) sizes[++k] = all[c];
+            counts[k]++;
+        }
+
+        int bottom = full.nextSetBit((N - 1) * N);
+        percolates = bottom >= 0;
+    }
+
+    /**
+     * Analyse a random N-by-N mask with site vacancy probability p
+     *
+     * @param args the program arguments
+     */
+    public static void main(String[] args) {
+        int N = Integer.parseInt(args[0]);
+        double p = Double.parseDouble(args[1]);
+
+        BitSet open = new BitSet(N * N);
+        for (int i = 0; i < N * N; i++) {
+            if (StdRandom.bernoulli(p)) open.set(i);
+        }
+
+        Stopwatch stopwatch = new Stopwatch();
+        PercolationAnalysis analysis = new PercolationAnalysis(N, open);
+        double elapsed = stopwatch.elapsedTime();
+
+        int[] sizes = analysis.clusterSizes();
+        long clusters = 0;
+        for (long count : analysis.clusterCounts()) clusters += count;
+
+        StdOut.printf("percolates: %b%n", analysis.percolates());
+        StdOut.printf("clusters: %d, largest: %d%n", clusters,
+                sizes.length > 0 ? sizes[sizes.length - 1] : 0);
+        StdOut.printf("elapsed time: %.2f seconds.%n", elapsed);
+    }
+
+    private static int firstRow(int N, int bands, int b) {
+        return (int) ((long) N * b / bands);
+    }
+
+    /**
+     * Link the roots of p and q below the smaller index
+     */
+    private static void union(int[] parent, int p, int q) {
+        int rootP = find(parent, p);
+        int rootQ = find(parent, q);
+        if (rootP < rootQ) parent[rootQ] = rootP;
+        else if (rootQ < rootP) parent[rootP] = rootQ;
+    }
+
+    private static int find(int[] parent, int p) {
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+
+    /**
+     * Does the system percolate?
+     *
+     * @return true if percolates, otherwise false
+     */
+    public boolean percolates() {
+        return percolates;
+    }
+
+    /**
+     * Is site (row <tt>i</tt>, column <tt>j</tt>) full?
+     *
+     * @param i the row
+     * @param j the column
+     * @return true if site is full, otherwise false
+     */
+    public boolean isFull(int i, int j) {
+        if (1 > i || N < i || 1 > j || N < j)
+            throw new IndexOutOfBoundsException("index out of bounds");
+        return full.get((i - 1) * N + (j - 1));
+    }
+
+    /**
+     * Full-site mask, bit (i - 1) * N + (j - 1) for site (i, j)
+     *
+     * @return the full sites
+     */
+    public BitSet fullSites() {
+        return (BitSet) full.clone();
+    }
+
+    /**
+     * Distinct cluster sizes of the cluster-size histogram, ascending
+     *
+     * @return the sizes, parallel to {@link #clusterCounts()}
+     */
+    public int[] clusterSizes() {
+        return sizes.clone();
+    }
+
+    /**
+     * Cluster-size histogram counts: element k is the number of clusters
+     * of clusterSizes()[k] sites
+     *
+     * @return the counts, parallel to {@link #clusterSizes()}
+     */
+    public long[] clusterCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Fork-join task labelling the bands in [lo, hi)
+     */
+    private static class Bands extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int N, bands, lo, hi;
+        private final BitSet open;
+        private final int[] parent;
+
+        Bands(int N, int bands, BitSet open, int[] parent, int lo, int hi) {
+            this.N = N;
+            this.bands = bands;
+            this.open = open;
+            this.parent = parent;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                label(firstRow(N, bands, lo), firstRow(N, bands, lo + 1));
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Bands(N, bands, open, parent, lo, mid),
+                    new Bands(N, bands, open, parent, mid, hi));
+        }
+
+        /**
+         * Label rows [first, last) looking only at neighbours above and to
+         * the left inside the band
+         */
+        private void label(int first, int last) {
+            for (int i = first; i < last; i++) {
+                for (int j = 0, p = i * N; j < N; j++, p++) {
+                    if (!open.get(p))
+                        continue;
+
+                    parent[p] = p;
+                    if (i > first && open.get(p - N))
+                        union(parent, p, p - N);
+                    if (j > 0 && open.get(p - 1))
+                        union(parent, p, p - 1);
+                }
+            }
+        }
+    }
+}
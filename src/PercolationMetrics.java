@@ -0,0 +1,216 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: opt-in hot-path counters for Percolation and PercolationStats
+ * <p/>
+ * Enabled with -Dpercolation.metrics=true. ENABLED is a static final
+ * constant, so when it is false the JIT folds every guarded increment
+ * away and the instrumented code runs as if it were not there.
+ * <p/>
+ * Each grid counts into its own instance with plain fields. When a trial
+ * ends, PercolationStats adds those counts, the rejected random draws and
+ * the trial time to process-wide totals and commits a JFR event, so runs
+ * can be profiled with -XX:StartFlightRecording alone. snapshot() returns
+ * the current totals.
+ */
+public class PercolationMetrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+    /**
+     * Number of find-step histogram buckets, the last one is open-ended
+     */
+    public static final int STEPS = 32;
+
+    private static final LongAdder UNIONS = new LongAdder();
+    private static final LongAdder IS_OPEN_CHECKS = new LongAdder();
+    private static final LongAdder REJECTED_DRAWS = new LongAdder();
+    private static final LongAdder TRIALS = new LongAdder();
+    private static final LongAdder TRIAL_NANOS = new LongAdder();
+    private static final LongAdder[] FIND_STEPS = new LongAdder[STEPS];
+
+    static {
+        for (int i = 0; i < STEPS; i++) FIND_STEPS[i] = new LongAdder();
+    }
+
+    long unions, isOpenChecks;
+    private final long[] findSteps = new long[STEPS];
+    private long rejectedDraws, trials, trialNanos;
+
+    /**
+     * Record one find that followed <tt>steps</tt> links (after halving)
+     *
+     * @param steps the number of steps
+     */
+    void find(int steps) {
+        findSteps[Math.min(steps, STEPS - 1)]++;
+    }
+
+    /**
+     * Zero the counters of a grid
+     */
+    void clear() {
+        unions = isOpenChecks = 0;
+        Arrays.fill(findSteps, 0);
+    }
+
+    /**
+     * Start timing a trial
+     *
+     * @return the trial event
+     */
+    static TrialEvent beginTrial() {
+        TrialEvent event = new TrialEvent();
+        event.start = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Add the counts of a finished trial to the totals and commit its event
+     *
+     * @param event     the event returned by beginTrial()
+     * @param grid      the counters of the trial's grid
+     * @param N         dimension of the grid
+     * @param openSites number of open sites when the system percolated
+     * @param rejected  number of random draws that hit an open site
+     */
+    static void endTrial(TrialEvent event, PercolationMetrics grid, int N,
+                         int openSites, long rejected) {
+        event.end();
+        long nanos = System.nanoTime() - event.start;
+
+        long finds = 0;
+        for (int i = 0; i < STEPS; i++) {
+            if (grid.findSteps[i] == 0) continue;
+            FIND_STEPS[i].add(grid.findSteps[i]);
+            finds += grid.findSteps[i];
+        }
+        UNIONS.add(grid.unions);
+        IS_OPEN_CHECKS.add(grid.isOpenChecks);
+        REJECTED_DRAWS.add(rejected);
+        TRIALS.increment();
+        TRIAL_NANOS.add(nanos);
+
+        if (event.shouldCommit()) {
+            event.gridSize = N;
+            event.openSites = openSites;
+            event.unions = grid.unions;
+            event.finds = finds;
+            event.isOpenChecks = grid.isOpenChecks;
+            event.rejectedDraws = rejected;
+            event.commit();
+        }
+    }
+
+    /**
+     * Process-wide totals so far
+     *
+     * @return the totals
+     */
+    public static PercolationMetrics snapshot() {
+        PercolationMetrics m = new PercolationMetrics();
+        m.unions = UNIONS.sum();
+        m.isOpenChecks = IS_OPEN_CHECKS.sum();
+        m.rejectedDraws = REJECTED_DRAWS.sum();
+        m.trials = TRIALS.sum();
+        m.trialNanos = TRIAL_NANOS.sum();
+        for (int i = 0; i < STEPS; i++) m.findSteps[i] = FIND_STEPS[i].sum();
+        return m;
+    }
+
+    /**
+     * Zero the process-wide totals
+     */
+    public static void reset() {
+        UNIONS.reset();
+        IS_OPEN_CHECKS.reset();
+        REJECTED_DRAWS.reset();
+        TRIALS.reset();
+        TRIAL_NANOS.reset();
+        for (LongAdder a : FIND_STEPS) a.reset();
+    }
+
+    public long unions() {
+        return unions;
+    }
+
+    public long isOpenChecks() {
+        return isOpenChecks;
+    }
+
+    public long rejectedDraws() {
+        return rejectedDraws;
+    }
+
+    public long trials() {
+        return trials;
+    }
+
+    public long trialNanos() {
+        return trialNanos;
+    }
+
+    /**
+     * Histogram of find steps: element s counts finds of s steps
+     *
+     * @return the histogram
+     */
+    public long[] findSteps() {
+        return findSteps.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("trials                  = %d%n", trials));
+        s.append(String.format("time per trial          = %.3f ms%n",
+                trials == 0 ? 0 : trialNanos / 1e6 / trials));
+        s.append(String.format("unions                  = %d%n", unions));
+        s.append(String.format("isOpen checks           = %d%n", isOpenChecks));
+        s.append(String.format("rejected draws          = %d%n", rejectedDraws));
+        s.append("find steps              =");
+        int last = STEPS - 1;
+        while (last > 0 && findSteps[last] == 0) last--;
+        for (int i = 0; i <= last; i++) s.append(' ').append(findSteps[i]);
+        return s.append(String.format("%n")).toString();
+    }
+
+    /**
+     * JFR event committed for every finished trial
+     */
+    @Name("percolation.Trial")
+    @Label("Percolation Trial")
+    @Category("Percolation")
+    @Description("One PercolationStats trial")
+    static class TrialEvent extends Event {
+        @Label("Grid Size")
+        int gridSize;
+
+        @Label("Open Sites")
+        int openSites;
+
+        @Label("Unions")
+        long unions;
+
+        @Label("Finds")
+        long finds;
+
+        @Label("isOpen Checks")
+        long isOpenChecks;
+
+        @Label("Rejected Draws")
+        long rejectedDraws;
+
+        transient long start;
+    }
+}
@@ -1,42 +1,286 @@
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
-import edu.princeton.cs.algs4.StdStats;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Thomas A. Rieck
  * 1/30/2016
  * Purpose: perform T independent experiments on an N-by-N grid
+ * <p/>
+ * Trials may optionally be spread across a fork-join pool. In that case
+ * each trial draws from its own SplittableRandom stream, split off a
+ * seeded root stream in trial order, so the samples for a given seed are
+ * the same whatever the number of threads.
+ * <p/>
+ * In sweep mode (Newman-Ziff) a trial opens the sites in the order of a
+ * single random permutation, shuffled lazily as it is consumed, and stops
+ * at the exact step at which the grid first percolates. No draw is ever
+ * rejected, and the per-trial steps also give the whole percolation
+ * probability curve as a function of the occupation probability.
+ * <p/>
+ * In adaptive mode trials run in fixed-size batches, and the experiment
+ * stops as soon as the 95% confidence interval half-width drops below a
+ * target or the time budget runs out.
+ * <p/>
+ * Each thread keeps one grid (and permutation buffer) and resets it
+ * between trials instead of allocating a new one per trial.
+ * <p/>
+ * With -Dpercolation.metrics=true every trial also reports its counters
+ * to PercolationMetrics.
  */
 public class PercolationStats {
 
     private static final double CONFIDENCE_COEFFICIENT = 1.96;
-    private final int T;
-    private final double[] samples;
+    private static final int BATCH = 64;    // trials per adaptive batch
+
+    private final ThresholdStats stats;
+    private final int[] percolatedAt;       // trials per open-site count
 
     public PercolationStats(int N, int T) {
         if (N <= 0 || T <= 0)
             throw new IllegalArgumentException();
 
-        this.T = T;
-        samples = new double[T];
+        stats = new ThresholdStats((long) N * N);
+        percolatedAt = null;
 
+        Percolation percolation = new Percolation(N);
         for (int i = 0, count; i < T; i++) {
-            Percolation percolation = new Percolation(N);
+            percolation.reset();
+            PercolationMetrics.TrialEvent event =
+                    PercolationMetrics.ENABLED ? PercolationMetrics.beginTrial() : null;
             count = 0;
+            long draws = 0;
             while (!percolation.percolates()) {
                 int j = StdRandom.uniform(1, N + 1);
                 int k = StdRandom.uniform(1, N + 1);
+                draws++;
                 if (!percolation.isOpen(j, k)) {
                     percolation.open(j, k);
                     count++;
                 }
             }
-            samples[i] = count / (double) (N * N);
+            if (PercolationMetrics.ENABLED)
+                PercolationMetrics.endTrial(event, percolation.metrics(), N, count, draws - count);
+            stats.add(count);
+        }
+    }
+
+    /**
+     * Results of experiments that were run elsewhere, e.g. the merged
+     * partial results of worker processes
+     *
+     * @param stats the thresholds of the experiments
+     */
+    PercolationStats(ThresholdStats stats) {
+        if (stats.count() == 0)
+            throw new IllegalArgumentException();
+
+        this.stats = stats;
+        percolatedAt = null;
+    }
+
+    /**
+     * Perform T independent experiments on an N-by-N grid in parallel
+     *
+     * @param N           dimension of the grid
+     * @param T           number of experiments
+     * @param seed        seed of the root random stream
+     * @param parallelism number of worker threads
+     */
+    public PercolationStats(int N, int T, long seed, int parallelism) {
+        this(N, T, seed, parallelism, false, false, 0, 0);
+    }
+
+    private PercolationStats(int N, int T, long seed, int parallelism,
+                             boolean sweep, boolean withCurve,
+                             double halfWidth, long budgetMillis) {
+        if (N <= 0 || T <= 0 || parallelism <= 0)
+            throw new IllegalArgumentException();
+
+        stats = new ThresholdStats((long) N * N);
+        percolatedAt = withCurve ? new int[N * N + 1] : null;
+
+        // a fixed experiment is a single batch of T trials
+        boolean adaptive = halfWidth > 0 || budgetMillis > 0;
+        int batch = adaptive ? Math.min(BATCH, T) : T;
+        int[] counts = new int[batch];
+        SplittableRandom[] streams = new SplittableRandom[batch];
+        ThreadLocal<Workspace> workspaces = workspaces(N, sweep);
+
+        // one stream per trial, split off in trial order
+        SplittableRandom root = new SplittableRandom(seed);
+        long start = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int done = 0; done < T; ) {
+                int n = Math.min(batch, T - done);
+                for (int i = 0; i < n; i++) {
+                    streams[i] = root.split();
+                }
+
+                pool.invoke(new Trials(sweep, workspaces, streams, counts, 0, n));
+
+                for (int i = 0; i < n; i++) {
+                    stats.add(counts[i]);
+                    if (percolatedAt != null) percolatedAt[counts[i]]++;
+                }
+                done += n;
+
+                if (halfWidth > 0 && halfWidth() <= halfWidth)
+                    break;
+                if (budgetMillis > 0
+                        && System.nanoTime() - start >= budgetMillis * 1_000_000L)
+                    break;
+            }
+        } finally {
+            pool.shutdown();
         }
     }
 
+    /**
+     * Perform T independent Newman-Ziff sweeps on an N-by-N grid in parallel
+     *
+     * @param N           dimension of the grid
+     * @param T           number of experiments
+     * @param seed        seed of the root random stream
+     * @param parallelism number of worker threads
+     * @param withCurve   whether to keep the percolation probability curve,
+     *                    see {@link #curve(double)}
+     * @return the statistics
+     */
+    public static PercolationStats sweep(int N, int T, long seed,
+                                         int parallelism, boolean withCurve) {
+        return new PercolationStats(N, T, seed, parallelism, true, withCurve, 0, 0);
+    }
+
+    /**
+     * Perform experiments on an N-by-N grid in parallel until the 95%
+     * confidence interval half-width is at most <tt>halfWidth</tt>, the
+     * time budget is spent, or <tt>maxTrials</tt> trials have run
+     *
+     * @param N            dimension of the grid
+     * @param maxTrials    maximum number of experiments
+     * @param halfWidth    target half-width of the confidence interval
+     * @param budgetMillis time budget in milliseconds, 0 for none
+     * @param seed         seed of the root random stream
+     * @param parallelism  number of worker threads
+     * @param sweep        whether to use Newman-Ziff sweeps
+     * @return the statistics
+     */
+    public static PercolationStats adaptive(int N, int maxTrials, double halfWidth,
+                                            long budgetMillis, long seed,
+                                            int parallelism, boolean sweep) {
+        if (halfWidth <= 0 || budgetMillis < 0)
+            throw new IllegalArgumentException();
+
+        return new PercolationStats(N, maxTrials, seed, parallelism, sweep, false,
+                halfWidth, budgetMillis);
+    }
+
+    /**
+     * Per-thread workspaces for trials on an N-by-N grid; create them once
+     * and pass them to every {@link #runTrials} call, so that each thread
+     * allocates its grid only once
+     *
+     * @param N     dimension of the grid
+     * @param sweep whether to use Newman-Ziff sweeps
+     * @return the workspaces
+     */
+    static ThreadLocal<Workspace> workspaces(int N, boolean sweep) {
+        return ThreadLocal.withInitial(() -> new Workspace(N, sweep));
+    }
+
+    /**
+     * Run trial i on stream <tt>streams[i]</tt> for i &lt; n, in parallel
+     * on <tt>pool</tt>, storing its number of open sites in counts[i]
+     *
+     * @param pool       the pool to run on
+     * @param workspaces the workspaces, from {@link #workspaces}
+     * @param sweep      whether to use Newman-Ziff sweeps
+     * @param streams    the random stream of each trial
+     * @param counts     the results
+     * @param n          number of trials
+     */
+    static void runTrials(ForkJoinPool pool, ThreadLocal<Workspace> workspaces,
+                          boolean sweep, SplittableRandom[] streams, int[] counts, int n) {
+        pool.invoke(new Trials(sweep, workspaces, streams, counts, 0, n));
+    }
+
+    /**
+     * Run a single experiment, opening random blocked sites until
+     * the system percolates
+     *
+     * @param w      the workspace of the calling thread
+     * @param random the random stream of this trial
+     * @return the number of open sites
+     */
+    private static int trial(Workspace w, SplittableRandom random) {
+        int N = w.N;
+        Percolation percolation = w.percolation;
+        percolation.reset();
+        PercolationMetrics.TrialEvent event =
+                PercolationMetrics.ENABLED ? PercolationMetrics.beginTrial() : null;
+        int count = 0;
+        long draws = 0;
+        while (!percolation.percolates()) {
+            int j = random.nextInt(1, N + 1);
+            int k = random.nextInt(1, N + 1);
+            draws++;
+            if (!percolation.isOpen(j, k)) {
+                percolation.open(j, k);
+                count++;
+            }
+        }
+        if (PercolationMetrics.ENABLED)
+            PercolationMetrics.endTrial(event, percolation.metrics(), N, count, draws - count);
+        return count;
+    }
+
+    /**
+     * Run a single Newman-Ziff sweep, opening the sites in the order of a
+     * random permutation until the system percolates
+     *
+     * @param w      the workspace of the calling thread
+     * @param random the random stream of this trial
+     * @return the number of open sites
+     */
+    private static int sweepTrial(Workspace w, SplittableRandom random) {
+        int N = w.N;
+        Percolation percolation = w.percolation;
+        percolation.reset();
+        PercolationMetrics.TrialEvent event =
+                PercolationMetrics.ENABLED ? PercolationMetrics.beginTrial() : null;
+        int n = N * N;
+
+        // start from the identity so the result only depends on the stream
+        int[] order = w.order;
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+
+        int count = 0;
+        while (!percolation.percolates()) {
+            // Fisher-Yates, one position at a time
+            int r = count + random.nextInt(n - count);
+            int p = order[r];
+            order[r] = order[count];
+            order[count++] = p;
+            // sites come up once each, so skip the checks of open(i, j)
+            percolation.openBlocked(p);
+        }
+        if (PercolationMetrics.ENABLED)
+            PercolationMetrics.endTrial(event, percolation.metrics(), N, count, 0);
+        return count;
+    }
+
     /**
      * Main entry point of application
+     * <p/>
+     * Usage: N T [seed [threads [trials|sweep [halfWidth [budgetMillis]]]]]
      *
      * @param args application arguments
      */
@@ -45,12 +289,51 @@ public class PercolationStats {
         int N = Integer.parseInt(args[0]);
         int T = Integer.parseInt(args[1]);
 
-        PercolationStats stats = new PercolationStats(N, T);
+        PercolationStats stats;
+        boolean counted = false;    // report the number of trials run
+        if (args.length > 2) {
+            long seed = Long.parseLong(args[2]);
+            int threads = args.length > 3 ? Integer.parseInt(args[3])
+                    : Runtime.getRuntime().availableProcessors();
+            boolean sweep = args.length > 4 && args[4].equals("sweep");
+            counted = sweep || args.length > 5;
+            if (args.length > 5) {
+                double halfWidth = Double.parseDouble(args[5]);
+                long budget = args.length > 6 ? Long.parseLong(args[6]) : 0;
+                stats = adaptive(N, T, halfWidth, budget, seed, threads, sweep);
+            } else if (sweep) {
+                stats = sweep(N, T, seed, threads, false);
+            } else {
+                stats = new PercolationStats(N, T, seed, threads);
+            }
+        } else {
+            stats = new PercolationStats(N, T);
+        }
 
-        StdOut.printf("mean                    = %.10f%n", stats.mean());
-        StdOut.printf("stddev                  = %.10f%n", stats.stddev());
+        if (counted)
+            StdOut.printf("trials                  = %d%n", stats.trials());
+        stats.report();
+    }
+
+    /**
+     * Print the results to standard output
+     */
+    void report() {
+        StdOut.printf("mean                    = %.10f%n", mean());
+        StdOut.printf("stddev                  = %.10f%n", stddev());
         StdOut.printf("95%% confidence interval = %.10f, %.10f%n",
-                stats.confidenceLo(), stats.confidenceHi());
+                confidenceLo(), confidenceHi());
+        if (PercolationMetrics.ENABLED)
+            StdOut.print(PercolationMetrics.snapshot());
+    }
+
+    /**
+     * Number of experiments performed
+     *
+     * @return the number of trials
+     */
+    public long trials() {
+        return stats.count();
     }
 
     /**
@@ -59,7 +342,7 @@ public class PercolationStats {
      * @return the mean
      */
     public double mean() {
-        return StdStats.mean(samples);
+        return stats.mean();
     }
 
     /**
@@ -68,7 +351,16 @@ public class PercolationStats {
      * @return the standard deviation
      */
     public double stddev() {
-        return StdStats.stddev(samples);
+        return stats.stddev();
+    }
+
+    /**
+     * Half-width of the 95% confidence interval
+     *
+     * @return the half-width
+     */
+    private double halfWidth() {
+        return (CONFIDENCE_COEFFICIENT * stddev()) / Math.sqrt(stats.count());
     }
 
     /**
@@ -77,7 +369,7 @@ public class PercolationStats {
      * @return the low endpoint
      */
     public double confidenceLo() {
-        return mean() - ((CONFIDENCE_COEFFICIENT * stddev()) / Math.sqrt(T));
+        return mean() - halfWidth();
     }
 
     /**
@@ -86,6 +378,106 @@ public class PercolationStats {
      * @return the high endpoint
      */
     public double confidenceHi() {
-        return mean() + ((CONFIDENCE_COEFFICIENT * stddev()) / Math.sqrt(T));
+        return mean() + halfWidth();
+    }
+
+    /**
+     * Percolation probability of a sweep at occupation probability p, the
+     * chance that a grid whose sites are each open with probability p
+     * percolates. With M = N^2 sites, it is the fraction of trials that
+     * percolated by n open sites, averaged over n ~ Binomial(M, p)
+     * (Newman and Ziff's convolution), so a single sweep gives the whole
+     * curve.
+     *
+     * @param p the occupation probability
+     * @return the percolation probability
+     * @throws IllegalStateException if the sweep did not keep the curve
+     */
+    public double curve(double p) {
+        if (percolatedAt == null)
+            throw new IllegalStateException("no curve requested");
+        if (!(p >= 0 && p <= 1))
+            throw new IllegalArgumentException("p not in [0, 1]");
+
+        // fraction of trials percolated by n open sites
+        int M = percolatedAt.length - 1;
+        double[] percolated = new double[M + 1];
+        for (int n = 0, count = 0; n <= M; n++) {
+            count += percolatedAt[n];
+            percolated[n] = count / (double) stats.count();
+        }
+        if (p == 0) return percolated[0];
+        if (p == 1) return percolated[M];
+
+        // binomial weights relative to the one at the mode, stepping out
+        // from it so that none of them overflows
+        int mode = (int) Math.min(M, Math.floor((M + 1) * p));
+        double odds = p / (1 - p);
+        double sum = percolated[mode], total = 1;
+        double w = 1;
+        for (int n = mode + 1; n <= M && w > 0; n++) {
+            w *= (double) (M - n + 1) / n * odds;
+            sum += w * percolated[n];
+            total += w;
+        }
+        w = 1;
+        for (int n = mode - 1; n >= 0 && w > 0; n--) {
+            w *= (double) (n + 1) / (M - n) / odds;
+            sum += w * percolated[n];
+            total += w;
+        }
+        return sum / total;
+    }
+
+    /**
+     * Grid and permutation buffer reused by every trial a thread runs
+     */
+    static class Workspace {
+        private final int N;
+        private final Percolation percolation;
+        private final int[] order;
+
+        Workspace(int N, boolean sweep) {
+            this.N = N;
+            percolation = new Percolation(N);
+            order = sweep ? new int[N * N] : null;
+        }
+    }
+
+    /**
+     * Fork-join task running the trials in [lo, hi)
+     */
+    private static class Trials extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi;
+        private final boolean sweep;
+        private final ThreadLocal<Workspace> workspaces;
+        private final SplittableRandom[] streams;
+        private final int[] counts;
+
+        Trials(boolean sweep, ThreadLocal<Workspace> workspaces,
+               SplittableRandom[] streams, int[] counts, int lo, int hi) {
+            this.sweep = sweep;
+            this.workspaces = workspaces;
+            this.streams = streams;
+            this.counts = counts;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                Workspace w = workspaces.get();
+                counts[lo] = sweep ? sweepTrial(w, streams[lo])
+                        : trial(w, streams[lo]);
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Trials(sweep, workspaces, streams, counts, lo, mid),
+                    new Trials(sweep, workspaces, streams, counts, mid, hi));
+        }
     }
 }
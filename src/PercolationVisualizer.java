@@ -1,6 +1,8 @@
 /******************************************************************************
  *  Compilation:  javac PercolationVisualizer.java
  *  Execution:    java PercolationVisualizer input.txt
+ *                java PercolationVisualizer input.txt fps
+ *                java PercolationVisualizer input.txt -png dir [opens-per-frame]
  *  Dependencies: Percolation.java
  *
  *  This program takes the name of a file as a command-line argument.
@@ -14,9 +16,24 @@
  *  open sites (that aren't full) in white, and blocked sites in black,
  *  with with site (1, 1) in the upper left-hand corner.
  *
+ *  Given a frame rate, it instead coalesces as many opens as fit in one
+ *  frame and repaints only the sites whose open or full state changed.
+ *  With -png it draws nothing on screen and writes every frame (one per
+ *  opens-per-frame opens, N by default) to dir/frame000000.png, ...,
+ *  which works on a headless machine.
+ *
  ******************************************************************************/
 
+import java.awt.Color;
 import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+
+import javax.imageio.ImageIO;
 
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdDraw;
@@ -34,15 +51,17 @@ public class PercolationVisualizer {
         StdDraw.setYscale(-.05*N, 1.05*N);   // leave a border to write text
         StdDraw.filledSquare(N/2.0, N/2.0, N/2.0);
 
-        // draw N-by-N grid
+        // draw N-by-N grid from a snapshot of the whole system
+        BitSet open = perc.openSites(1, N);
+        BitSet full = perc.fullSites(1, N);
         int opened = 0;
-        for (int row = 1; row <= N; row++) {
-            for (int col = 1; col <= N; col++) {
-                if (perc.isFull(row, col)) {
+        for (int row = 1, p = 0; row <= N; row++) {
+            for (int col = 1; col <= N; col++, p++) {
+                if (full.get(p)) {
                     StdDraw.setPenColor(StdDraw.BOOK_LIGHT_BLUE);
                     opened++;
                 }
-                else if (perc.isOpen(row, col)) {
+                else if (open.get(p)) {
                     StdDraw.setPenColor(StdDraw.WHITE);
                     opened++;
                 }
@@ -62,9 +81,30 @@ public class PercolationVisualizer {
     }
 
     public static void main(String[] args) {
+        // check the options before reading the input
+        boolean png = args.length > 1 && args[1].equals("-png");
+        if (args.length < (png ? 3 : 1) || args.length > (png ? 4 : 2))
+            throw usage("wrong number of arguments");
+        int batch = png && args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        if (png && args.length > 3 && batch <= 0)
+            throw usage("opens-per-frame must be positive");
+        double fps = !png && args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        if (!png && args.length > 1 && !(fps > 0 && fps < Double.POSITIVE_INFINITY))
+            throw usage("fps must be positive and finite");
+
         In in = new In(args[0]);      // input file
         int N = in.readInt();         // N-by-N percolation system
 
+        if (png) {
+            replay(in, N, new ImageCanvas(N, new File(args[2])), batch > 0 ? batch : N, 0);
+            return;
+        }
+        if (args.length > 1) {
+            long frame = (long) (1e9 / fps);
+            replay(in, N, new ScreenCanvas(N), Integer.MAX_VALUE, frame);
+            return;
+        }
+
         // turn on animation mode
         StdDraw.show(0);
 
@@ -80,4 +120,168 @@ public class PercolationVisualizer {
             StdDraw.show(DELAY);
         }
     }
+
+    private static IllegalArgumentException usage(String problem) {
+        return new IllegalArgumentException(problem + "; usage: PercolationVisualizer"
+                + " input.txt [fps | -png dir [opens-per-frame]]");
+    }
+
+    // open the sites read from in, emitting a frame after batch opens or
+    // once frameNanos have passed since the previous frame, whichever first
+    private static void replay(In in, int N, Canvas canvas, int batch, long frameNanos) {
+        Percolation perc = new Percolation(N);
+        BitSet shownOpen = new BitSet(N*N);
+        BitSet shownFull = new BitSet(N*N);
+        int opened = 0;
+
+        canvas.clear();
+        canvas.status(0, false);
+        canvas.flush();
+
+        long last = System.nanoTime();
+        int pending = 0;
+        while (!in.isEmpty()) {
+            int i = in.readInt();
+            int j = in.readInt();
+            if (!perc.isOpen(i, j)) opened++;
+            perc.open(i, j);
+            pending++;
+
+            boolean due = pending >= batch
+                    || (frameNanos > 0 && System.nanoTime() - last >= frameNanos);
+            if (due) {
+                repaint(perc, N, canvas, shownOpen, shownFull, opened);
+                last = System.nanoTime();
+                pending = 0;
+            }
+        }
+        if (pending > 0) repaint(perc, N, canvas, shownOpen, shownFull, opened);
+    }
+
+    // repaint only the sites whose state differs from what is on the canvas
+    private static void repaint(Percolation perc, int N, Canvas canvas,
+                                BitSet shownOpen, BitSet shownFull, int opened) {
+        BitSet open = perc.openSites(1, N);
+        BitSet full = perc.fullSites(1, N);
+
+        BitSet dirty = (BitSet) open.clone();
+        dirty.xor(shownOpen);
+        shownFull.xor(full);
+        dirty.or(shownFull);
+
+        for (int p = dirty.nextSetBit(0); p >= 0; p = dirty.nextSetBit(p+1))
+            canvas.cell(p / N + 1, p % N + 1, full.get(p) ? Canvas.FULL : Canvas.OPEN);
+
+        shownOpen.clear();
+        shownOpen.or(open);
+        shownFull.clear();
+        shownFull.or(full);
+
+        canvas.status(opened, perc.percolates());
+        canvas.flush();
+    }
+
+    // a surface sites can be painted on one at a time
+    private interface Canvas {
+        int BLOCKED = 0, OPEN = 1, FULL = 2;
+
+        void clear();                               // all sites blocked
+        void cell(int row, int col, int state);
+        void status(int opened, boolean percolates);
+        void flush();                               // end of frame
+    }
+
+    // paints on the StdDraw window, without clearing between frames
+    private static class ScreenCanvas implements Canvas {
+        private final int N;
+
+        ScreenCanvas(int N) {
+            this.N = N;
+            StdDraw.show(0);
+            StdDraw.setXscale(-.05*N, 1.05*N);
+            StdDraw.setYscale(-.05*N, 1.05*N);
+            StdDraw.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        }
+
+        public void clear() {
+            StdDraw.clear();
+            StdDraw.setPenColor(StdDraw.BLACK);
+            StdDraw.filledSquare(N/2.0, N/2.0, N/2.0);
+        }
+
+        public void cell(int row, int col, int state) {
+            if      (state == FULL) StdDraw.setPenColor(StdDraw.BOOK_LIGHT_BLUE);
+            else if (state == OPEN) StdDraw.setPenColor(StdDraw.WHITE);
+            else                    StdDraw.setPenColor(StdDraw.BLACK);
+            StdDraw.filledSquare(col - 0.5, N - row + 0.5, 0.45);
+        }
+
+        public void status(int opened, boolean percolates) {
+            StdDraw.setPenColor(StdDraw.WHITE);
+            StdDraw.filledRectangle(N/2.0, -N*.025, .55*N, .025*N);
+            StdDraw.setPenColor(StdDraw.BLACK);
+            StdDraw.text(.25*N, -N*.025, opened + " open sites");
+            if (percolates) StdDraw.text(.75*N, -N*.025, "percolates");
+            else            StdDraw.text(.75*N, -N*.025, "does not percolate");
+        }
+
+        public void flush() {
+            StdDraw.show(0);
+        }
+    }
+
+    // paints into an image written to a numbered PNG file per frame;
+    // it never touches StdDraw, so it runs with no display attached
+    private static class ImageCanvas implements Canvas {
+        private static final Color LIGHT_BLUE = new Color(103, 198, 243);
+        private static final int STATUS = 20;       // status bar height
+
+        private final int N, size;
+        private final File dir;
+        private final BufferedImage image;
+        private final Graphics2D g;
+        private int frame;
+
+        ImageCanvas(int N, File dir) {
+            this.N = N;
+            this.dir = dir;
+            size = Math.max(1, Math.min(8, 2048 / N));
+            image = new BufferedImage(N*size, N*size + STATUS, BufferedImage.TYPE_INT_RGB);
+            g = image.createGraphics();
+            g.setFont(new Font("SansSerif", Font.PLAIN, 12));
+            if (!dir.isDirectory() && !dir.mkdirs())
+                throw new IllegalArgumentException("cannot create " + dir);
+        }
+
+        public void clear() {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, N*size, N*size);
+        }
+
+        public void cell(int row, int col, int state) {
+            if      (state == FULL) g.setColor(LIGHT_BLUE);
+            else if (state == OPEN) g.setColor(Color.WHITE);
+            else                    g.setColor(Color.BLACK);
+            g.fillRect((col - 1)*size, (row - 1)*size, size, size);
+        }
+
+        public void status(int opened, boolean percolates) {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, N*size, N*size, STATUS);
+            g.setColor(Color.BLACK);
+            g.drawString(opened + " open sites, "
+                    + (percolates ? "percolates" : "does not percolate"),
+                    4, N*size + STATUS - 5);
+        }
+
+        public void flush() {
+            File file = new File(dir, String.format("frame%06d.png", frame++));
+            try {
+                ImageIO.write(image, "png", file);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
@@ -0,0 +1,297 @@
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: run seeded PercolationStats experiments as several worker
+ * processes and merge their partial results
+ * <p/>
+ * Trial k of a seeded run always draws from the k-th stream split off the
+ * root stream, so a worker doing trials [first, first + trials) skips the
+ * first streams and produces exactly the samples a single process would.
+ * Each worker writes a small partial file: its parameters, including the
+ * total T of the run, the number of trials done and the exact
+ * ThresholdStats sums (with the mean and M2).
+ * The file is rewritten after every CHECKPOINT trials through a rename,
+ * so a killed worker leaves its last checkpoint behind and picks up from
+ * there when started again. Merging the exact sums gives the same mean,
+ * standard deviation and confidence interval as a single-process run;
+ * the merged files must cover trials [0, T) exactly once.
+ * <p/>
+ * Usage:
+ * <pre>
+ *   run N T seed workers dir [sweep]          start workers, wait, merge
+ *   work N T seed first trials file [sweep [threads]]
+ *   merge file...
+ * </pre>
+ */
+public class PercolationWorkers {
+
+    private static final int MAGIC = 0x50435354;    // "PCST"
+    private static final int CHECKPOINT = 1024;     // trials between writes
+
+    /**
+     * Main entry point of application
+     *
+     * @param args application arguments
+     * @throws Exception if a worker fails or a file cannot be used
+     */
+    public static void main(String[] args) throws Exception {
+        switch (args[0]) {
+            case "run": {
+                int N = Integer.parseInt(args[1]);
+                long T = Long.parseLong(args[2]);
+                long seed = Long.parseLong(args[3]);
+                int workers = Integer.parseInt(args[4]);
+                boolean sweep = args.length > 6 && args[6].equals("sweep");
+                run(N, T, seed, workers, new File(args[5]), sweep).report();
+                break;
+            }
+            case "work": {
+                int N = Integer.parseInt(args[1]);
+                long T = Long.parseLong(args[2]);
+                long seed = Long.parseLong(args[3]);
+                long first = Long.parseLong(args[4]);
+                int trials = Integer.parseInt(args[5]);
+                boolean sweep = args.length > 7 && args[7].equals("sweep");
+                int threads = args.length > 8 ? Integer.parseInt(args[8]) : 1;
+                work(N, T, seed, first, trials, sweep, threads, new File(args[6]));
+                break;
+            }
+            case "merge": {
+                File[] files = new File[args.length - 1];
+                for (int i = 1; i < args.length; i++) files[i - 1] = new File(args[i]);
+                merge(files).report();
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("unknown command " + args[0]);
+        }
+    }
+
+    /**
+     * Split trials [0, T) over worker processes on this host, wait for
+     * them and merge their results. Partial files already in <tt>dir</tt>
+     * are resumed.
+     *
+     * @param N       dimension of the grid
+     * @param T       number of experiments
+     * @param seed    seed of the root random stream
+     * @param workers number of worker processes
+     * @param dir     directory of the partial files
+     * @param sweep   whether to use Newman-Ziff sweeps
+     * @return the merged statistics
+     * @throws IOException          if a worker cannot be started or fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static PercolationStats run(int N, long T, long seed, int workers,
+                                       File dir, boolean sweep)
+            throws IOException, InterruptedException {
+        if (N <= 0 || T <= 0 || workers <= 0 || T / workers >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException();
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("cannot create " + dir);
+
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+        String classpath = System.getProperty("java.class.path");
+
+        File[] files = new File[workers];
+        Process[] processes = new Process[workers];
+        for (int w = 0; w < workers; w++) {
+            long first = T * w / workers;
+            long trials = T * (w + 1) / workers - first;
+            files[w] = new File(dir, String.format("worker%03d.part", w));
+
+            List<String> command = new ArrayList<>(Arrays.asList(java, "-cp", classpath,
+                    PercolationWorkers.class.getName(), "work",
+                    String.valueOf(N), String.valueOf(T), String.valueOf(seed),
+                    String.valueOf(first), String.valueOf(trials), files[w].getPath()));
+            if (sweep) command.add("sweep");
+            processes[w] = new ProcessBuilder(command).inheritIO().start();
+        }
+
+        for (int w = 0; w < workers; w++) {
+            int status = processes[w].waitFor();
+            if (status != 0)
+                throw new IOException("worker " + w + " exited with status " + status
+                        + ", run again to resume it");
+        }
+
+        return merge(files);
+    }
+
+    /**
+     * Do trials [first, first + trials) of a seeded run, checkpointing to
+     * <tt>file</tt> and resuming from it if it exists
+     *
+     * @param N       dimension of the grid
+     * @param T       number of experiments of the whole run
+     * @param seed    seed of the root random stream
+     * @param first   the first trial
+     * @param trials  number of trials
+     * @param sweep   whether to use Newman-Ziff sweeps
+     * @param threads number of threads of this worker
+     * @param file    the partial result file
+     * @throws IOException if the file cannot be read or written
+     */
+    public static void work(int N, long T, long seed, long first, int trials,
+                            boolean sweep, int threads, File file) throws IOException {
+        if (N <= 0 || first < 0 || trials < 0 || first + trials > T || threads <= 0)
+            throw new IllegalArgumentException();
+
+        Partial part;
+        if (file.exists()) {
+            part = Partial.read(file);
+            if (part.N != N || part.T != T || part.seed != seed || part.first != first
+                    || part.trials != trials || part.sweep != sweep)
+                throw new IOException(file + " belongs to a different run");
+        } else {
+            part = new Partial(N, T, seed, sweep, first, trials,
+                    new ThresholdStats((long) N * N));
+            part.write(file);
+        }
+
+        // skip the streams of the trials before ours and of those done
+        SplittableRandom root = new SplittableRandom(seed);
+        for (long k = first + part.stats.count(); k > 0; k--) {
+            root.split();
+        }
+
+        int[] counts = new int[CHECKPOINT];
+        SplittableRandom[] streams = new SplittableRandom[CHECKPOINT];
+        ThreadLocal<PercolationStats.Workspace> workspaces = PercolationStats.workspaces(N, sweep);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (part.stats.count() < trials) {
+                int n = (int) Math.min(CHECKPOINT, trials - part.stats.count());
+                for (int i = 0; i < n; i++) {
+                    streams[i] = root.split();
+                }
+
+                PercolationStats.runTrials(pool, workspaces, sweep, streams, counts, n);
+
+                for (int i = 0; i < n; i++) {
+                    part.stats.add(counts[i]);
+                }
+                part.write(file);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Merge the partial files of finished workers of one run
+     *
+     * @param files the partial files
+     * @return the merged statistics
+     * @throws IOException if a file cannot be read, is unfinished, or does
+     *                     not belong with the others
+     */
+    public static PercolationStats merge(File... files) throws IOException {
+        if (files.length == 0)
+            throw new IllegalArgumentException("no partial files");
+
+        Partial[] parts = new Partial[files.length];
+        for (int i = 0; i < files.length; i++) {
+            parts[i] = Partial.read(files[i]);
+            if (parts[i].stats.count() != parts[i].trials)
+                throw new IOException(files[i] + " is unfinished, resume its worker");
+        }
+
+        // the trial ranges must be of the same run and must cover [0, T)
+        // exactly once
+        Arrays.sort(parts, Comparator.comparingLong(p -> p.first));
+        ThresholdStats stats = new ThresholdStats(parts[0].stats.sites());
+        long next = 0;      // the first trial not covered yet
+        for (Partial p : parts) {
+            if (p.N != parts[0].N || p.T != parts[0].T || p.seed != parts[0].seed
+                    || p.sweep != parts[0].sweep)
+                throw new IOException("partial files of different runs");
+            if (p.first < next)
+                throw new IOException("overlapping trial ranges");
+            if (p.first > next)
+                throw new IOException("missing trials [" + next + ", " + p.first + ")");
+            next = p.first + p.trials;
+            stats.merge(p.stats);
+        }
+        if (next != parts[0].T)
+            throw new IOException("missing trials [" + next + ", " + parts[0].T + ")");
+        return new PercolationStats(stats);
+    }
+
+    /**
+     * Contents of a partial result file
+     */
+    private static class Partial {
+        private final int N;
+        private final long T;           // trials of the whole run
+        private final long seed;
+        private final boolean sweep;
+        private final long first;
+        private final int trials;
+        private final ThresholdStats stats;     // the trials done so far
+
+        Partial(int N, long T, long seed, boolean sweep, long first, int trials,
+                ThresholdStats stats) {
+            this.N = N;
+            this.T = T;
+            this.seed = seed;
+            this.sweep = sweep;
+            this.first = first;
+            this.trials = trials;
+            this.stats = stats;
+        }
+
+        static Partial read(File file) throws IOException {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != MAGIC)
+                    throw new IOException(file + " is not a partial result file");
+                int N = in.readInt();
+                long T = in.readLong();
+                long seed = in.readLong();
+                boolean sweep = in.readBoolean();
+                long first = in.readLong();
+                int trials = in.readInt();
+                return new Partial(N, T, seed, sweep, first, trials, ThresholdStats.read(in));
+            }
+        }
+
+        // write a new file and rename it over the old one, so that a
+        // worker killed while writing leaves the previous checkpoint
+        void write(File file) throws IOException {
+            File tmp = new File(file.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(N);
+                out.writeLong(T);
+                out.writeLong(seed);
+                out.writeBoolean(sweep);
+                out.writeLong(first);
+                out.writeInt(trials);
+                stats.write(out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 /******************************************************************************
  * Compilation:  javac PuzzleChecker.java
- * Execution:    java PuzzleChecker filename1.txt filename2.txt ...
- * Dependencies: Board.java Solver.java
+ * Execution:    java PuzzleChecker [-table] filename1.txt filename2.txt ...
+ *               java PuzzleChecker [-table] -batch threads timeout filename|directory ...
+ * Dependencies: Board.java Solver.java PuzzleTable.java
  * <p/>
  * This program creates an initial board from each filename specified
  * on the command line and finds the minimum number of moves to
  * reach the goal state.
  * <p/>
+ * With -table, 3-by-3 boards are looked up in the complete distance table
+ * rather than searched; the first run builds it and writes it to
+ * pdb/table-3x3.bin. Run with -Dsolver.pdb=dir to keep it in dir instead,
+ * or with -Dsolver.table.cache=false to neither read nor write it.
+ * <p/>
  * % java PuzzleChecker puzzle*.txt
  * puzzle00.txt: 0
  * puzzle01.txt: 1
@@ -22,33 +28,209 @@
  * puzzle43.txt: 43
  * puzzle44.txt: 44
  * puzzle45.txt: 45
+ * <p/>
+ * In batch mode the puzzles are solved concurrently by a pool of the
+ * given number of threads, giving up on a puzzle after timeout seconds.
+ * A directory stands for its .txt files, in name order. The results are
+ * printed in input order, followed by the throughput and latencies. A
+ * file that cannot be read or solved is reported as an error and the
+ * batch goes on.
+ * <p/>
+ * % java PuzzleChecker -batch 8 5 puzzles
+ * puzzles/p00000.txt: 10
+ * ...
+ * puzzles/p99998.txt: error attempts to read an 'int' value from the input
+ *     stream, but no more tokens are available
+ * puzzles/p99999.txt: timeout
+ * 3201 puzzles in 7.18 seconds: 446.0 puzzles/s, 1 timed out, 1 errors
+ * latency (ms): median 0.25, 90th 20.54, 99th 55.04, max 5124.74
  ******************************************************************************/
 
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 public class PuzzleChecker {
 
     public static void main(String[] args) {
 
+        // -table looks 3-by-3 boards up rather than searching
+        Solver.Algorithm algorithm = Solver.Algorithm.A_STAR;
+        if (args.length > 0 && args[0].equals("-table")) {
+            algorithm = Solver.Algorithm.TABLE;
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        if (args.length > 0 && args[0].equals("-batch")) {
+            int threads = Integer.parseInt(args[1]);
+            double timeout = Double.parseDouble(args[2]);
+            batch(files(Arrays.copyOfRange(args, 3, args.length)), threads,
+                    (long) (timeout * 1e9), algorithm);
+            return;
+        }
+
         // for each command-line argument
         for (String filename : args) {
 
-            // read in the board specified in the filename
-            In in = new In(filename);
-            int N = in.readInt();
-            int[][] tiles = new int[N][N];
-            for (int i = 0; i < N; i++) {
-                for (int j = 0; j < N; j++) {
-                    tiles[i][j] = in.readInt();
-                }
-            }
-
             // solve the slider puzzle
-            Board initial = new Board(tiles);
+            Board initial = read(filename);
 
-            Solver solver = new Solver(initial);
+            Solver solver = new Solver(initial, algorithm);
             StdOut.println(filename + ": " + solver.moves());
         }
     }
+
+    // read in the board specified in the filename
+    private static Board read(String filename) {
+        In in = new In(filename);
+        int N = in.readInt();
+        int[][] tiles = new int[N][N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                tiles[i][j] = in.readInt();
+            }
+        }
+        return new Board(tiles);
+    }
+
+    // the named files, with each directory replaced by its .txt files
+    private static List<String> files(String[] names) {
+        List<String> files = new ArrayList<>();
+        for (String name : names) {
+            File file = new File(name);
+            if (!file.isDirectory()) {
+                files.add(name);
+                continue;
+            }
+
+            File[] entries = file.listFiles((dir, entry) -> entry.endsWith(".txt"));
+            if (entries == null)
+                throw new IllegalArgumentException("cannot list " + name);
+            Arrays.sort(entries);
+            for (File entry : entries) files.add(entry.getPath());
+        }
+        return files;
+    }
+
+    /**
+     * Solve the puzzles on a pool of threads and print the results in
+     * input order
+     *
+     * @param files     the puzzle files
+     * @param threads   number of worker threads
+     * @param timeout   nanoseconds allowed for each puzzle
+     * @param algorithm the search algorithm
+     */
+    private static void batch(List<String> files, int threads, long timeout,
+                              Solver.Algorithm algorithm) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ScheduledThreadPoolExecutor alarms = new ScheduledThreadPoolExecutor(1);
+        alarms.setRemoveOnCancelPolicy(true);
+
+        long start = System.nanoTime();
+        try {
+            List<ForkJoinTask<Result>> tasks = new ArrayList<>(files.size());
+            for (String filename : files) {
+                tasks.add(pool.submit(() -> check(filename, timeout, algorithm, alarms)));
+            }
+
+            long[] latencies = new long[files.size()];
+            int timeouts = 0, errors = 0;
+            for (int i = 0; i < files.size(); i++) {
+                Result result = tasks.get(i).join();
+                tasks.set(i, null);
+                latencies[i] = result.nanos;
+                if (result.timedOut)
+                    timeouts++;
+                if (result.error != null)
+                    errors++;
+                StdOut.println(files.get(i) + ": " + (result.timedOut ? "timeout"
+                        : result.error != null ? "error " + result.error
+                        : String.valueOf(result.moves)));
+            }
+
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            StdOut.printf("%d puzzles in %.2f seconds: %.1f puzzles/s, %d timed out, %d errors%n",
+                    files.size(), elapsed, files.size() / elapsed, timeouts, errors);
+            if (latencies.length > 0) {
+                Arrays.sort(latencies);
+                StdOut.printf("latency (ms): median %.2f, 90th %.2f, 99th %.2f, max %.2f%n",
+                        percentile(latencies, 0.5), percentile(latencies, 0.9),
+                        percentile(latencies, 0.99), percentile(latencies, 1));
+            }
+        } finally {
+            pool.shutdownNow();
+            alarms.shutdownNow();
+        }
+    }
+
+    // nearest-rank percentile of sorted nanoseconds, in milliseconds
+    private static double percentile(long[] sorted, double q) {
+        int rank = (int) Math.ceil(q * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    // solve one puzzle, interrupting the search when time is up; a puzzle
+    // that cannot be read or solved is an error of its own, not of the run
+    private static Result check(String filename, long timeout, Solver.Algorithm algorithm,
+                                ScheduledThreadPoolExecutor alarms) {
+        long start = System.nanoTime();
+        Alarm alarm = new Alarm(Thread.currentThread());
+        ScheduledFuture<?> scheduled = alarms.schedule(alarm, timeout, TimeUnit.NANOSECONDS);
+
+        Result result = new Result();
+        try {
+            result.moves = new Solver(read(filename), algorithm).moves();
+        } catch (CancellationException e) {
+            result.timedOut = true;
+        } catch (RuntimeException e) {
+            result.error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        } finally {
+            alarm.disarm();
+            scheduled.cancel(false);
+            Thread.interrupted();       // an interrupt that came too late
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static class Result {
+        private int moves;
+        private boolean timedOut;
+        private String error;           // why the puzzle failed, or null
+        private long nanos;
+    }
+
+    /**
+     * Interrupts a worker unless it is disarmed first; once disarmed it
+     * can no longer interrupt, so the worker's next puzzle is safe
+     */
+    private static class Alarm implements Runnable {
+        private final Thread worker;
+        private boolean disarmed;
+
+        Alarm(Thread worker) {
+            this.worker = worker;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!disarmed)
+                worker.interrupt();
+        }
+
+        synchronized void disarm() {
+            disarmed = true;
+        }
+    }
 }
@@ -0,0 +1,285 @@
+import edu.princeton.cs.algs4.Queue;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.Stopwatch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: complete distance-to-goal table of the 3-by-3 puzzle
+ * <p/>
+ * Only 9! / 2 = 181,440 boards can reach the goal. A board is indexed by
+ * the position of its blank times 8! / 2 plus half the lexicographic rank
+ * of its eight blocks in row-major order: ranks 2r and 2r + 1 differ by
+ * exchanging the last two blocks, so exactly one of them is solvable with
+ * the blank in a given position. A breadth-first search from the goal
+ * fills in the distance of every board, one byte each, and the table is
+ * kept, followed by its CRC-32, in the file table-3x3.bin of the directory named by the system
+ * property solver.pdb (pdb by default), so it is built once and loaded by
+ * every later process. Setting the system property solver.table.cache to
+ * false neither reads nor writes the file; a table that cannot be written
+ * is still used by the process that built it. After that the number of
+ * moves of a board is a single lookup, and a shortest solution follows
+ * neighbors one move closer.
+ */
+public final class PuzzleTable {
+
+    private static final int N = 3, CELLS = N * N;
+    private static final int HALF = 20160;          // 8! / 2
+    private static final int SIZE = CELLS * HALF;   // 181,440
+    private static final int[] FACTORIAL = {1, 1, 2, 6, 24, 120, 720, 5040, 40320};
+
+    private static PuzzleTable instance;
+
+    private final byte[] distances;
+
+    private PuzzleTable(byte[] distances) {
+        this.distances = distances;
+    }
+
+    /**
+     * Build the table if it is not on disk yet, and print how many boards
+     * are at each distance
+     * <p/>
+     * Usage: java [-Dsolver.pdb=dir] [-Dsolver.table.cache=false] PuzzleTable
+     * <p/>
+     * Writes dir/table-3x3.bin, pdb/table-3x3.bin by default, unless
+     * caching is off
+     *
+     * @param args the program arguments
+     */
+    public static void main(String[] args) {
+        Stopwatch stopwatch = new Stopwatch();
+        PuzzleTable table = get();
+
+        int[] count = new int[Byte.MAX_VALUE];
+        int max = 0;
+        for (byte d : table.distances) {
+            count[d]++;
+            max = Math.max(max, d);
+        }
+        for (int d = 0; d <= max; d++) {
+            StdOut.printf("%2d moves: %d boards%n", d, count[d]);
+        }
+        StdOut.printf("elapsed time: %.2f seconds.%n", stopwatch.elapsedTime());
+    }
+
+    /**
+     * The table, shared by the whole process; built on first use if it is
+     * not on disk
+     *
+     * @return the table
+     */
+    public static synchronized PuzzleTable get() {
+        if (instance != null)
+            return instance;
+
+        File file = null;
+        if (Boolean.parseBoolean(System.getProperty("solver.table.cache", "true")))
+            file = new File(System.getProperty("solver.pdb", "pdb"), "table-3x3.bin");
+
+        byte[] distances = file != null ? read(file) : null;
+        if (distances == null) {
+            distances = build();
+            if (file != null)
+                write(distances, file);
+        }
+        instance = new PuzzleTable(distances);
+        return instance;
+    }
+
+    // the cached table, or null if there is none or it cannot be read
+    private static byte[] read(File file) {
+        if (!file.exists())
+            return null;
+        try {
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            if (bytes.length == SIZE + Integer.BYTES) {
+                byte[] distances = Arrays.copyOf(bytes, SIZE);
+                if (ByteBuffer.wrap(bytes, SIZE, Integer.BYTES).getInt() == checksum(distances))
+                    return distances;
+            }
+            System.err.println(file + " is corrupt, rebuilding it");
+        } catch (IOException e) {
+            System.err.println("cannot read " + file + ", rebuilding it: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // cache the table through a temporary file, so that a concurrent
+    // reader never sees a partial one; a failure only costs later
+    // processes a rebuild
+    private static void write(byte[] distances, File file) {
+        File dir = file.getAbsoluteFile().getParentFile();
+        File tmp = null;
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs())
+                throw new IOException("cannot create " + dir);
+            tmp = File.createTempFile("table", ".tmp", dir);
+            byte[] bytes = Arrays.copyOf(distances, SIZE + Integer.BYTES);
+            ByteBuffer.wrap(bytes, SIZE, Integer.BYTES).putInt(checksum(distances));
+            Files.write(tmp.toPath(), bytes);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("cannot cache the table in " + file + ": " + e.getMessage());
+            if (tmp != null && !tmp.delete())
+                tmp.deleteOnExit();
+        }
+    }
+
+    private static int checksum(byte[] distances) {
+        CRC32 crc = new CRC32();
+        crc.update(distances);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Fewest moves from a solvable 3-by-3 board to the goal
+     *
+     * @param board the board
+     * @return the number of moves
+     */
+    public int moves(Board board) {
+        if (board.dimension() != N)
+            throw new IllegalArgumentException("not a 3-by-3 board");
+        return distances[index(board.tiles())];
+    }
+
+    /**
+     * A shortest solution of a solvable 3-by-3 board, found by moving to
+     * a neighbor one move closer to the goal until there
+     *
+     * @param board the board
+     * @return the boards from <tt>board</tt> to the goal
+     */
+    public Iterable<Board> solution(Board board) {
+        Queue<Board> boards = new Queue<>();
+        boards.enqueue(board);
+        for (int d = moves(board); d > 0; d--) {
+            for (Board neighbor : board.neighbors()) {
+                if (moves(neighbor) == d - 1) {
+                    board = neighbor;
+                    break;
+                }
+            }
+            boards.enqueue(board);
+        }
+        return boards;
+    }
+
+    /**
+     * Index of a board
+     *
+     * @param tiles the tiles, row-major
+     * @return blank * 8! / 2 + rank of the blocks / 2
+     */
+    private static int index(int[] tiles) {
+        int blank = 0, rank = 0, used = 0;
+        for (int k = 0, i = 0; k < CELLS; k++) {
+            int t = tiles[k];
+            if (t == 0) {
+                blank = k;
+                continue;
+            }
+            // blocks after this one in the order are those not yet used
+            int smaller = Integer.bitCount(used & ((1 << t) - 1));
+            rank += (t - 1 - smaller) * FACTORIAL[CELLS - 2 - i];
+            used |= 1 << t;
+            i++;
+        }
+        return blank * HALF + rank / 2;
+    }
+
+    // fill tiles with a board of the given blank and block rank
+    private static void unindex(int blank, int rank, int[] tiles) {
+        int used = 0;
+        for (int k = 0, i = 0; k < CELLS; k++) {
+            if (k == blank) {
+                tiles[k] = 0;
+                continue;
+            }
+            int f = FACTORIAL[CELLS - 2 - i];
+            int r = rank / f;
+            rank %= f;
+
+            // the r-th block not used yet
+            int t = 1;
+            for (; ; t++) {
+                if ((used & (1 << t)) == 0 && r-- == 0)
+                    break;
+            }
+            tiles[k] = t;
+            used |= 1 << t;
+            i++;
+        }
+    }
+
+    /**
+     * Breadth-first search from the goal over all solvable boards
+     *
+     * @return the distance of every index
+     */
+    private static byte[] build() {
+        byte[] distances = new byte[SIZE];
+        Arrays.fill(distances, (byte) -1);
+
+        int[] queue = new int[SIZE];
+        int head = 0, tail = 0;
+        int[] tiles = new int[CELLS];
+        for (int k = 0; k < CELLS; k++) tiles[k] = (k + 1) % CELLS;
+        int goal = index(tiles);
+        distances[goal] = 0;
+        queue[tail++] = goal;
+
+        while (head < tail) {
+            int s = queue[head++];
+            int blank = s / HALF;
+
+            // of the two ranks sharing the index, take the solvable one
+            unindex(blank, 2 * (s % HALF), tiles);
+            if (!solvable(tiles))
+                unindex(blank, 2 * (s % HALF) + 1, tiles);
+
+            int i = blank / N, j = blank % N;
+            for (int d = 0; d < 4; d++) {
+                int k;
+                if (d == 0 && i > 0) k = blank - N;
+                else if (d == 1 && i < N - 1) k = blank + N;
+                else if (d == 2 && j > 0) k = blank - 1;
+                else if (d == 3 && j < N - 1) k = blank + 1;
+                else continue;
+
+                tiles[blank] = tiles[k];
+                tiles[k] = 0;
+                int t = index(tiles);
+                if (distances[t] < 0) {
+                    distances[t] = (byte) (distances[s] + 1);
+                    queue[tail++] = t;
+                }
+                tiles[k] = tiles[blank];
+                tiles[blank] = 0;
+            }
+        }
+        return distances;
+    }
+
+    // 3-by-3 boards are solvable when the inversions among blocks are even
+    private static boolean solvable(int[] tiles) {
+        int inversions = 0;
+        for (int a = 0; a < CELLS; a++) {
+            for (int b = a + 1; b < CELLS; b++) {
+                if (tiles[a] != 0 && tiles[b] != 0 && tiles[a] > tiles[b])
+                    inversions++;
+            }
+        }
+        return inversions % 2 == 0;
+    }
+}
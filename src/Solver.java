@@ -1,18 +1,111 @@
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.MinPQ;
+import edu.princeton.cs.algs4.Queue;
 import edu.princeton.cs.algs4.Stopwatch;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.Stack;
 
+import java.util.concurrent.CancellationException;
+
 /**
  * Thomas A. Rieck
  * 02/20/2016
  * Purpose: Solver for 8-puzzle problem
+ * <p/>
+ * A closed set keyed by the boards' Zobrist hashes holds the fewest moves
+ * at which each board was expanded. A board is never worth expanding
+ * again at the same or a higher number of moves, so such boards are
+ * neither expanded nor enqueued; with a consistent heuristic no board is
+ * ever expanded twice. The set is bounded by a maximum number of entries
+ * and evicts the deepest boards when full.
+ * <p/>
+ * Boards up to 4-by-4 are searched by PackedAStar, with the nodes kept in
+ * primitive arrays and the frontier in buckets by f and h; larger boards
+ * by the priority queue of SearchNodes below.
+ * <p/>
+ * Alternatively the puzzle is solved by IDA*, whose memory is linear in
+ * the length of the solution instead of growing with every board seen.
+ * <p/>
+ * Either search is guided by Manhattan distance, by Manhattan distance
+ * plus linear conflicts, or, for 4-by-4 boards, by the additive pattern
+ * database. The first two are consistent; the pattern database is only
+ * admissible, so A* may expand a board again once it is reached in fewer
+ * moves, and both searches stay optimal.
+ * <p/>
+ * A bidirectional search works from both ends instead, measuring the
+ * backward search's estimates to the initial board; as it needs a
+ * consistent heuristic, it uses linear conflict in place of the pattern
+ * database.
+ * <p/>
+ * 3-by-3 boards can instead be looked up in a table of the distance of
+ * every solvable board, which answers without searching at all.
+ * <p/>
+ * Every search gives up with a CancellationException once its thread is
+ * interrupted, so that a caller can bound the time spent on one board.
  */
 public class Solver {
 
-    private final MinPQ<SearchNode> queue;
-    private SearchNode goal;
+    /**
+     * Search algorithms a Solver can use
+     */
+    public enum Algorithm {
+        /**
+         * A* with a priority queue and a bounded closed set
+         */
+        A_STAR,
+        /**
+         * Iterative-deepening A*, memory linear in the solution depth
+         */
+        IDA_STAR,
+        /**
+         * Bidirectional search, forward from the initial board and
+         * backward from the goal
+         */
+        BIDIRECTIONAL,
+        /**
+         * Lookup in the complete 3-by-3 distance table, no search; A* for
+         * other sizes
+         */
+        TABLE
+    }
+
+    /**
+     * Estimates of the number of moves left a Solver can use
+     */
+    public enum Heuristic {
+        /**
+         * Sum of Manhattan distances
+         */
+        MANHATTAN,
+        /**
+         * Manhattan distance plus linear conflicts
+         */
+        LINEAR_CONFLICT,
+        /**
+         * Additive 6-6-3 pattern database for 4-by-4 boards, linear
+         * conflict for other sizes
+         */
+        PATTERN_DATABASE
+    }
+
+    /**
+     * Default maximum number of closed set entries (12 bytes each)
+     */
+    public static final int DEFAULT_CLOSED_CAPACITY = 1 << 22;
+
+    // searches check for an interrupt every INTERRUPT_CHECK + 1 nodes
+    static final int INTERRUPT_CHECK = (1 << 12) - 1;
+
+    private final Board initial;
+    private final Heuristic heuristic;
+    private final PatternDatabase pdb;      // for PATTERN_DATABASE only
+    private final boolean solvable;
+    private PuzzleTable table;      // for TABLE only
+    private MinPQ<SearchNode> queue;
+    private TranspositionTable closed;
+    private SearchNode goal;        // found by A*
+    private int[] path;             // found by IDA* or bidirectional search:
+                                    // blank index after each move
 
     /**
      * Find a solution to the initial board (using the A* algorithm)
@@ -20,16 +113,96 @@ public class Solver {
      * @param initial board
      */
     public Solver(Board initial) {
-        if (initial == null)
+        this(initial, Algorithm.A_STAR, Heuristic.MANHATTAN, DEFAULT_CLOSED_CAPACITY);
+    }
+
+    /**
+     * Find a solution to the initial board using the given algorithm
+     *
+     * @param initial   board
+     * @param algorithm the search algorithm
+     */
+    public Solver(Board initial, Algorithm algorithm) {
+        this(initial, algorithm, Heuristic.MANHATTAN, DEFAULT_CLOSED_CAPACITY);
+    }
+
+    /**
+     * Find a solution to the initial board using the given algorithm and
+     * heuristic
+     *
+     * @param initial   board
+     * @param algorithm the search algorithm
+     * @param heuristic the estimate of the moves left
+     */
+    public Solver(Board initial, Algorithm algorithm, Heuristic heuristic) {
+        this(initial, algorithm, heuristic, DEFAULT_CLOSED_CAPACITY);
+    }
+
+    /**
+     * Find a solution to the initial board (using the A* algorithm),
+     * with a bounded closed set
+     *
+     * @param initial        board
+     * @param closedCapacity maximum number of closed set entries
+     */
+    public Solver(Board initial, int closedCapacity) {
+        this(initial, Algorithm.A_STAR, Heuristic.MANHATTAN, closedCapacity);
+    }
+
+    private Solver(Board initial, Algorithm algorithm, Heuristic heuristic,
+                   int closedCapacity) {
+        if (initial == null || algorithm == null || heuristic == null)
             throw new NullPointerException();
 
+        if (heuristic == Heuristic.PATTERN_DATABASE && initial.dimension() != 4)
+            heuristic = Heuristic.LINEAR_CONFLICT;
+
+        // bidirectional search needs a consistent heuristic
+        if (heuristic == Heuristic.PATTERN_DATABASE && algorithm == Algorithm.BIDIRECTIONAL)
+            heuristic = Heuristic.LINEAR_CONFLICT;
+
+        this.initial = initial;
+        this.heuristic = heuristic;
+        pdb = heuristic == Heuristic.PATTERN_DATABASE ? PatternDatabase.fourByFour() : null;
         goal = null;
+        path = null;
+
+        // Unsolvable boards are told apart by parity, without searching
+        solvable = initial.isSolvable();
+        if (!solvable)
+            return;
+
+        if (algorithm == Algorithm.TABLE && initial.dimension() == 3) {
+            table = PuzzleTable.get();
+            return;
+        }
+
+        if (algorithm == Algorithm.IDA_STAR) {
+            path = IDAStar.solve(initial, heuristic, pdb);
+            return;
+        }
+        if (algorithm == Algorithm.BIDIRECTIONAL) {
+            path = Bidirectional.solve(initial, heuristic);
+            return;
+        }
+        if (initial.dimension() <= PackedAStar.MAX_N) {
+            path = PackedAStar.solve(initial, heuristic, pdb, closedCapacity);
+            return;
+        }
+
         queue = new MinPQ<>();
+        closed = new TranspositionTable(closedCapacity);
         solve(initial);
+
+        // only the solution chain is needed from here on
+        queue = null;
+        closed = null;
     }
 
     /**
      * Solve a slider puzzle (given  below)
+     * <p/>
+     * Usage: puzzle.txt [A_STAR|IDA_STAR|BIDIRECTIONAL|TABLE [MANHATTAN|LINEAR_CONFLICT|PATTERN_DATABASE]]
      *
      * @param args the program arguments
      */
@@ -43,10 +216,12 @@ public class Solver {
             for (int j = 0; j < N; j++)
                 blocks[i][j] = in.readInt();
         Board initial = new Board(blocks);
+        Algorithm algorithm = args.length > 1 ? Algorithm.valueOf(args[1]) : Algorithm.A_STAR;
+        Heuristic heuristic = args.length > 2 ? Heuristic.valueOf(args[2]) : Heuristic.MANHATTAN;
 
         // solve the puzzle
         Stopwatch stopwatch = new Stopwatch();
-        Solver solver = new Solver(initial);
+        Solver solver = new Solver(initial, algorithm, heuristic);
 
         // print solution to standard output
         if (!solver.isSolvable())
@@ -69,26 +244,14 @@ public class Solver {
         node.previous = null;
         queue.insert(node);
 
-        // Twin board to check solvability
-        Board twin = initial.twin();
-        MinPQ<SearchNode> twinQueue = new MinPQ<>();
-        SearchNode twinNode = new SearchNode();
-        twinNode.board = twin;
-        twinNode.moves = 0;
-        twinNode.previous = null;
-        twinQueue.insert(twinNode);
-
         // Delete from the priority queue the search node with the
         // minimum priority, and insert onto the priority queue all neighboring
         // search nodes (those that can be reached in one move from the
         // dequeued search node). Repeat this procedure until the search node
         // dequeued corresponds to a goal board.
-        while (!queue.isEmpty() && !twinQueue.isEmpty()) {
-            twinNode = twinQueue.delMin();
-            if (twinNode.isGoal()) {
-                goal = null;    // unsolvable
-                break;
-            }
+        for (int n = 1; !queue.isEmpty(); n++) {
+            if ((n & INTERRUPT_CHECK) == 0)
+                checkInterrupted();
 
             node = queue.delMin();
             if (node.isGoal()) {
@@ -96,25 +259,69 @@ public class Solver {
                 break;
             }
 
-            enqueNeighbors(node, queue);
-            enqueNeighbors(twinNode, twinQueue);
+            expand(node);
         }
     }
 
-    private void enqueNeighbors(SearchNode node, MinPQ<SearchNode> pq) {
+    private void expand(SearchNode node) {
+        long key = node.board.zobrist();
+        if (closed.closed(key, node.moves))
+            return;
+
+        closed.put(key, node.moves);
+        enqueNeighbors(node);
+    }
+
+    private void enqueNeighbors(SearchNode node) {
 
         for (Board board : node.neighbors()) {
             // when considering the neighbors of a search node, don't
             // enqueue a neighbor if its board is the same as the board of
-            // the previous search node.
+            // the previous search node, or was already expanded in as
+            // few moves.
             if (node.previous != null && board.equals(node.previous.board))
                 continue;
+            if (closed.closed(board.zobrist(), node.moves + 1))
+                continue;
 
             SearchNode neighbor = new SearchNode();
             neighbor.board = board;
             neighbor.moves = node.moves + 1;
             neighbor.previous = node;
-            pq.insert(neighbor);
+            queue.insert(neighbor);
+        }
+    }
+
+    /**
+     * Give up the search of the current thread if it was interrupted
+     *
+     * @throws CancellationException if the thread is interrupted
+     */
+    static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted())
+            throw new CancellationException("search interrupted");
+    }
+
+    /**
+     * Estimated number of moves left
+     *
+     * @param heuristic the heuristic
+     * @param pdb       the pattern database, for PATTERN_DATABASE
+     * @param N         the dimension
+     * @param tiles     the tiles, row-major
+     * @param positions positions[t] = index of tile t
+     * @param manhattan the Manhattan distance
+     * @return the estimate
+     */
+    static int estimate(Heuristic heuristic, PatternDatabase pdb, int N,
+                        int[] tiles, int[] positions, int manhattan) {
+        switch (heuristic) {
+            case LINEAR_CONFLICT:
+                return manhattan + Board.linearConflict(tiles, N);
+            case PATTERN_DATABASE:
+                return pdb.estimate(positions);
+            default:
+                return manhattan;
         }
     }
 
@@ -124,7 +331,7 @@ public class Solver {
      * @return true if solvable, otherwise false
      */
     public boolean isSolvable() {
-        return goal != null;
+        return solvable;
     }
 
     /**
@@ -136,7 +343,10 @@ public class Solver {
         if (!isSolvable())
             return -1;
 
-        return goal.moves;
+        if (table != null)
+            return table.moves(initial);
+
+        return path != null ? path.length : goal.moves;
     }
 
     /**
@@ -148,6 +358,20 @@ public class Solver {
         if (!isSolvable())
             return null;
 
+        if (table != null)
+            return table.solution(initial);
+
+        if (path != null) {
+            Queue<Board> boards = new Queue<>();
+            Board board = initial;
+            boards.enqueue(board);
+            for (int k : path) {
+                board = board.slide(k);
+                boards.enqueue(board);
+            }
+            return boards;
+        }
+
         Stack<Board> stack = new Stack<>();
         stack.push(goal.board);
 
@@ -166,23 +390,31 @@ public class Solver {
      */
     private class SearchNode implements Comparable<SearchNode> {
         private Board board;
-        private int moves, manhattan = Integer.MAX_VALUE;
+        private int moves, estimate = Integer.MAX_VALUE;
         private SearchNode previous;
 
-        private int getManhattan() {
+        private int getEstimate() {
             if (board != null) {
-                if (manhattan == Integer.MAX_VALUE) {
-                    manhattan = board.manhattan();
+                if (estimate == Integer.MAX_VALUE) {
+                    if (heuristic == Heuristic.MANHATTAN) {
+                        estimate = board.manhattan();
+                    } else {
+                        int[] tiles = board.tiles();
+                        int[] positions = new int[tiles.length];
+                        for (int k = 0; k < tiles.length; k++) positions[tiles[k]] = k;
+                        estimate = estimate(heuristic, pdb, board.dimension(),
+                                tiles, positions, board.manhattan());
+                    }
                 }
             }
 
-            return manhattan;
+            return estimate;
         }
 
         @Override
         public int compareTo(SearchNode o) {
-            int left = this.getManhattan() + moves;
-            int right = o.getManhattan() + o.moves;
+            int left = this.getEstimate() + moves;
+            int right = o.getEstimate() + o.moves;
 
             if (left < right)
                 return -1;
@@ -190,8 +422,8 @@ public class Solver {
             if (left > right)
                 return 1;
 
-            left = this.getManhattan();
-            right = o.getManhattan();
+            left = this.getEstimate();
+            right = o.getEstimate();
 
             if (left < right)
                 return -1;
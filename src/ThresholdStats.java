@@ -0,0 +1,176 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: streaming mean and standard deviation of percolation thresholds
+ * <p/>
+ * Every sample is a number of open sites divided by the number of sites
+ * in the grid, so the accumulator keeps the exact integer sum and sum of
+ * squares of the open-site counts instead of a floating point running
+ * mean. Adding samples is O(1) and allocation free, and the mean and
+ * variance do not depend on the order in which trials finish.
+ * <p/>
+ * For the same reason partial accumulators, e.g. of separate worker
+ * processes, merge into exactly the accumulator of a single run over all
+ * their samples.
+ */
+public class ThresholdStats {
+
+    private final long sites;
+    private long count, sum;
+    private long sumSqHi, sumSqLo;  // 128-bit unsigned sum of squares
+    private double mean = Double.NaN, stddev = Double.NaN;
+    private boolean dirty;
+
+    /**
+     * Create an empty accumulator
+     *
+     * @param sites number of sites in the grid
+     */
+    public ThresholdStats(long sites) {
+        if (sites <= 0) throw new IllegalArgumentException();
+        this.sites = sites;
+    }
+
+    /**
+     * Add the sample of one trial
+     *
+     * @param openSites number of open sites when the system percolated
+     */
+    public void add(int openSites) {
+        if (openSites < 0 || openSites > sites)
+            throw new IllegalArgumentException();
+
+        long sq = (long) openSites * openSites;
+        sumSqLo += sq;
+        if (Long.compareUnsigned(sumSqLo, sq) < 0)
+            sumSqHi++;
+
+        sum += openSites;
+        count++;
+        dirty = true;
+    }
+
+    /**
+     * Add all the samples of another accumulator
+     *
+     * @param that the other accumulator, of the same grid size
+     */
+    public void merge(ThresholdStats that) {
+        if (that.sites != sites)
+            throw new IllegalArgumentException("different grid sizes");
+
+        sumSqLo += that.sumSqLo;
+        sumSqHi += that.sumSqHi;
+        if (Long.compareUnsigned(sumSqLo, that.sumSqLo) < 0)
+            sumSqHi++;
+
+        sum += that.sum;
+        count += that.count;
+        dirty = true;
+    }
+
+    /**
+     * Write the accumulator: the count and exact sums it is made of,
+     * followed by the mean and M2 (sum of squared deviations from the
+     * mean) for readers that only need those
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(sites);
+        out.writeLong(count);
+        out.writeLong(sum);
+        out.writeLong(sumSqHi);
+        out.writeLong(sumSqLo);
+        out.writeDouble(count == 0 ? 0 : mean());
+        out.writeDouble(count < 2 ? 0 : stddev() * stddev() * (count - 1));
+    }
+
+    /**
+     * Read an accumulator written by write()
+     *
+     * @param in the input
+     * @return the accumulator
+     * @throws IOException if reading fails
+     */
+    public static ThresholdStats read(DataInput in) throws IOException {
+        ThresholdStats stats = new ThresholdStats(in.readLong());
+        stats.count = in.readLong();
+        stats.sum = in.readLong();
+        stats.sumSqHi = in.readLong();
+        stats.sumSqLo = in.readLong();
+        stats.dirty = true;
+
+        // mean and M2 follow from the sums, so they only serve as a check
+        double mean = in.readDouble();
+        in.readDouble();
+        if (stats.count < 0 || (stats.count > 0 && mean != stats.mean()))
+            throw new IOException("corrupt threshold statistics");
+        return stats;
+    }
+
+    /**
+     * Number of sites in the grid
+     *
+     * @return the number of sites
+     */
+    public long sites() {
+        return sites;
+    }
+
+    /**
+     * Number of samples
+     *
+     * @return the count
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Sample mean
+     *
+     * @return the mean, NaN if there are no samples
+     */
+    public double mean() {
+        update();
+        return mean;
+    }
+
+    /**
+     * Sample standard deviation
+     *
+     * @return the standard deviation, NaN if there are fewer than two samples
+     */
+    public double stddev() {
+        update();
+        return stddev;
+    }
+
+    private void update() {
+        if (!dirty)
+            return;
+
+        mean = sum / ((double) count * sites);
+
+        // (n * sum(x^2) - sum(x)^2) / (n * (n - 1)) is exact up to the division
+        BigInteger n = BigInteger.valueOf(count);
+        BigInteger s = BigInteger.valueOf(sum);
+        BigInteger numerator = n.multiply(sumOfSquares()).subtract(s.multiply(s));
+        double denominator = (double) count * (count - 1) * sites * sites;
+        stddev = Math.sqrt(numerator.doubleValue() / denominator);
+
+        dirty = false;
+    }
+
+    private BigInteger sumOfSquares() {
+        return BigInteger.valueOf(sumSqHi).shiftLeft(64)
+                .add(new BigInteger(Long.toUnsignedString(sumSqLo)));
+    }
+}
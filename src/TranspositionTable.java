@@ -0,0 +1,139 @@
+/**
+ * Thomas A. Rieck
+ * 10/18/2026
+ * Purpose: bounded closed set of search states keyed by 64-bit hashes
+ * <p/>
+ * Maps a Zobrist hash to the lowest cost (number of moves) at which the
+ * state was expanded. The table is an array of 4-way buckets that starts
+ * small and doubles while at most half full, up to a fixed maximum
+ * number of entries. Once at the maximum, a key whose bucket is full
+ * replaces the entry of the bucket with the highest cost: deep states
+ * are the most numerous and the cheapest to find again, so the shallow
+ * ones, which prune the most, are kept. An evicted state may be expanded
+ * again, which costs time but never correctness.
+ * <p/>
+ * Only the hash is stored, so two states with the same 64-bit hash are
+ * taken for one; with random keys this is vanishingly unlikely.
+ */
+public class TranspositionTable {
+
+    private static final int WAYS = 4;          // entries per bucket
+    private static final int INITIAL = 1 << 10;
+
+    private final int maxCapacity;
+    private long[] keys;
+    private int[] costs;                        // cost + 1, 0 for empty
+    private int size;
+    private long replacements;
+
+    /**
+     * Create an empty table
+     *
+     * @param maxEntries maximum number of entries, rounded up to a power
+     *                   of two
+     */
+    public TranspositionTable(int maxEntries) {
+        if (maxEntries <= 0 || maxEntries > 1 << 30)
+            throw new IllegalArgumentException();
+
+        maxCapacity = Math.max(WAYS, Integer.highestOneBit(maxEntries - 1) << 1);
+        int capacity = Math.min(INITIAL, maxCapacity);
+        keys = new long[capacity];
+        costs = new int[capacity];
+    }
+
+    /**
+     * Was the state expanded at a cost of at most <tt>cost</tt>?
+     *
+     * @param key  the hash of the state
+     * @param cost the cost
+     * @return true if so, otherwise false
+     */
+    public boolean closed(long key, int cost) {
+        for (int i = bucket(key), end = i + WAYS; i < end; ++i) {
+            if (costs[i] != 0 && keys[i] == key)
+                return costs[i] - 1 <= cost;
+        }
+        return false;
+    }
+
+    /**
+     * Record that the state was expanded at <tt>cost</tt>, keeping the
+     * lower cost if it is already present
+     *
+     * @param key  the hash of the state
+     * @param cost the cost, at least 0
+     */
+    public void put(long key, int cost) {
+        while (true) {
+            int first = bucket(key), free = -1, worst = first;
+            for (int i = first, end = first + WAYS; i < end; ++i) {
+                if (costs[i] == 0) {
+                    if (free < 0) free = i;
+                } else if (keys[i] == key) {
+                    costs[i] = Math.min(costs[i], cost + 1);
+                    return;
+                } else if (costs[i] > costs[worst]) {
+                    worst = i;
+                }
+            }
+
+            if (free >= 0 && (2 * size < keys.length || keys.length == maxCapacity)) {
+                keys[free] = key;
+                costs[free] = cost + 1;
+                size++;
+                return;
+            }
+            if (keys.length < maxCapacity) {
+                grow();
+                continue;
+            }
+
+            // full bucket of a full-size table: evict the deepest entry
+            keys[worst] = key;
+            costs[worst] = cost + 1;
+            replacements++;
+            return;
+        }
+    }
+
+    private int bucket(long key) {
+        // the keys are random, so their low bits are a fine index
+        return (int) key & (keys.length - 1) & -WAYS;
+    }
+
+    // double the capacity; each bucket splits into two, so nothing is lost
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCosts = costs;
+        keys = new long[2 * oldKeys.length];
+        costs = new int[2 * oldKeys.length];
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldCosts[i] == 0)
+                continue;
+
+            int j = bucket(oldKeys[i]);
+            while (costs[j] != 0) j++;
+            keys[j] = oldKeys[i];
+            costs[j] = oldCosts[i];
+        }
+    }
+
+    /**
+     * Number of entries
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of entries evicted to make room for others
+     *
+     * @return the number of replacements
+     */
+    public long replacements() {
+        return replacements;
+    }
+}